@@ -0,0 +1,131 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * 基准测试的输入类型
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public enum InputType {
+
+	STRING {
+
+		@Override
+		public Object create(final int size, final Random random) {
+			return text(size, random);
+		}
+
+	},
+
+	CHAR_ARRAY {
+
+		@Override
+		public Object create(final int size, final Random random) {
+			return text(size, random).toCharArray();
+		}
+
+	},
+
+	BYTE_ARRAY {
+
+		@Override
+		public Object create(final int size, final Random random) {
+			return text(size, random).getBytes(UTF_8);
+		}
+
+	},
+
+	MAP {
+
+		@Override
+		public Object create(final int size, final Random random) {
+			final Map<String, Object> map = new HashMap<String, Object>();
+
+			for (int i = 0, entries = Math.max(1, size / ELEMENT_SIZE); i < entries; i++) {
+				map.put("k" + i, text(ELEMENT_SIZE - 4, random));
+			}
+
+			return map;
+		}
+
+	},
+
+	LIST {
+
+		@Override
+		public Object create(final int size, final Random random) {
+			final List<Object> list = new ArrayList<Object>();
+
+			for (int i = 0, elements = Math.max(1, size / ELEMENT_SIZE); i < elements; i++) {
+				list.add(text(ELEMENT_SIZE - 2, random));
+			}
+
+			return list;
+		}
+
+	};
+
+	/**
+	 * Map、List 中每个元素在 toString() 中大约占用的字符数
+	 */
+	private final static int ELEMENT_SIZE = 16;
+
+	private final static Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final static char[] ALPHABET = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789"
+			.toCharArray();
+
+	/**
+	 * 创建大约 size 个字符的输入
+	 * 
+	 * @param size
+	 *        输入大小
+	 * @param random
+	 *        随机数生成器
+	 * @return 输入对象
+	 */
+	public abstract Object create(int size, Random random);
+
+	private static String text(final int size, final Random random) {
+		final char[] chars = new char[Math.max(1, size)];
+
+		for (int i = 0; i < chars.length; i++) {
+			chars[i] = ALPHABET[random.nextInt(ALPHABET.length)];
+		}
+
+		return new String(chars);
+	}
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.buession.mcrypt.MD5Mcrypt;
+import com.buession.mcrypt.Mcrypt;
+import com.buession.mcrypt.Sha1Mcrypt;
+import com.buession.mcrypt.Sha256Mcrypt;
+import com.buession.mcrypt.Sha512Mcrypt;
+import com.buession.mcrypt.ShaMcrypt;
+
+/**
+ * Mcrypt 各算法、输入类型、加密密钥和重复加密次数的基准测试
+ * 
+ * 同时统计吞吐量和延迟分布（SampleTime 模式给出 p50/p90/p99/p99.9 等分位数）；
+ * 分配速率请加 -prof gc，线程数请用 -t 指定，例如：
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar McryptBenchmark -prof gc -t 4
+ * </pre>
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class McryptBenchmark {
+
+	@Param({"MD5Mcrypt", "ShaMcrypt", "Sha1Mcrypt", "Sha256Mcrypt", "Sha512Mcrypt"})
+	public String mcrypt;
+
+	@Param({"16", "256", "4096"})
+	public int inputSize;
+
+	@Param({"STRING", "CHAR_ARRAY", "BYTE_ARRAY", "MAP", "LIST"})
+	public InputType inputType;
+
+	@Param({"true", "false"})
+	public boolean salt;
+
+	@Param({"1", "2", "1000"})
+	public int count;
+
+	private Mcrypt instance;
+
+	private Object input;
+
+	@Setup
+	public void setup() {
+		instance = create(mcrypt, salt ? "benchmark-salt" : null, count);
+		input = inputType.create(inputSize, new Random(inputSize));
+	}
+
+	@Benchmark
+	public String encode() {
+		return instance.encode(input);
+	}
+
+	static Mcrypt create(final String name, final String salt, final int count) {
+		if ("MD5Mcrypt".equals(name)) {
+			return new MD5Mcrypt("UTF-8", salt, count);
+		} else if ("ShaMcrypt".equals(name)) {
+			return new ShaMcrypt("UTF-8", salt, count);
+		} else if ("Sha1Mcrypt".equals(name)) {
+			return new Sha1Mcrypt("UTF-8", salt, count);
+		} else if ("Sha256Mcrypt".equals(name)) {
+			return new Sha256Mcrypt("UTF-8", salt, count);
+		} else if ("Sha512Mcrypt".equals(name)) {
+			return new Sha512Mcrypt("UTF-8", salt, count);
+		}
+
+		throw new IllegalArgumentException("Unknown mcrypt <" + name + ">");
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.benchmark;
+
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.buession.mcrypt.Mcrypt;
+import com.buession.mcrypt.provider.McryptProvider;
+
+/**
+ * McryptProvider 与 JDK 默认提供者的对比基准测试
+ * 
+ * digest 直接测试 MessageDigest，copy 测试通过 clone() 复制摘要状态，encode 测试经 Mcrypt 加密字符串；
+ * 55 字节是单块快速路径的上限，64 字节需要两次压缩。例如：
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar ProviderBenchmark -prof gc
+ * </pre>
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderBenchmark {
+
+	@Param({"MD5", "SHA-1", "SHA-256", "SHA-512"})
+	public String algo;
+
+	@Param({"JDK", "Mcrypt"})
+	public String provider;
+
+	@Param({"16", "55", "64", "1024", "16384"})
+	public int inputSize;
+
+	private MessageDigest messageDigest;
+
+	private Mcrypt mcrypt;
+
+	private byte[] input;
+
+	private String text;
+
+	private byte[] output;
+
+	@Setup
+	public void setup() throws NoSuchAlgorithmException {
+		final Provider p = "Mcrypt".equals(provider) ? McryptProvider.getInstance() : null;
+
+		messageDigest = p == null ? MessageDigest.getInstance(algo) : MessageDigest.getInstance(
+				algo, p);
+		mcrypt = p == null ? new Mcrypt(algo, "UTF-8") : new Mcrypt(algo, "UTF-8", p);
+		input = new byte[inputSize];
+		new Random(inputSize).nextBytes(input);
+		text = (String) InputType.STRING.create(inputSize, new Random(inputSize));
+		output = new byte[messageDigest.getDigestLength()];
+	}
+
+	@Benchmark
+	public byte[] digest() throws DigestException {
+		messageDigest.update(input);
+		messageDigest.digest(output, 0, output.length);
+
+		return output;
+	}
+
+	@Benchmark
+	public Object copy() throws CloneNotSupportedException {
+		return messageDigest.clone();
+	}
+
+	@Benchmark
+	public String encode() {
+		return mcrypt.encode(text);
+	}
+
+}
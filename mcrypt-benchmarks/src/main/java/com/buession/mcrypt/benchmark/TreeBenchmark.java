@@ -0,0 +1,114 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.buession.mcrypt.Mcrypt;
+import com.buession.mcrypt.TreeMcrypt;
+
+/**
+ * TreeMcrypt 随并行度的扩展性基准测试，以单个 MessageDigest 的普通摘要为基线（parallelism 为 0）。例如：
+ * 
+ * <pre>
+ * java -jar target/benchmarks.jar TreeBenchmark -p parallelism=0,1,2,4,8
+ * </pre>
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class TreeBenchmark {
+
+	@Param({"SHA-256"})
+	public String algo;
+
+	@Param({"268435456"})
+	public int inputSize;
+
+	@Param({"1048576"})
+	public int leafSize;
+
+	@Param({"0", "1", "2", "4"})
+	public int parallelism;
+
+	private byte[] input;
+
+	private Mcrypt mcrypt;
+
+	private TreeMcrypt treeMcrypt;
+
+	private ForkJoinPool pool;
+
+	@Setup
+	public void setup() {
+		input = new byte[inputSize];
+		new Random(inputSize).nextBytes(input);
+
+		mcrypt = new Mcrypt(algo);
+		treeMcrypt = new TreeMcrypt(algo);
+		treeMcrypt.setLeafSize(leafSize);
+
+		if (parallelism > 0) {
+			pool = new ForkJoinPool(parallelism);
+			treeMcrypt.setForkJoinPool(pool);
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		if (pool != null) {
+			pool.shutdown();
+		}
+	}
+
+	@Benchmark
+	public String encode() {
+		return parallelism == 0 ? mcrypt.encode(input, 0, input.length) : treeMcrypt.encode(input,
+				0, input.length);
+	}
+
+}
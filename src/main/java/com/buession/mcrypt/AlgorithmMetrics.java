@@ -0,0 +1,155 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 单个算法和提供者的加密统计
+ * 
+ * 计数器均为 LongAdder，多线程同时记录时没有竞争
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class AlgorithmMetrics implements AlgorithmMetricsMBean {
+
+	private final String algo;
+
+	private final String provider;
+
+	private final LongAdder operations = new LongAdder();
+
+	private final LongAdder bytes = new LongAdder();
+
+	private final LongAdder rounds = new LongAdder();
+
+	private final LatencyHistogram latency = new LatencyHistogram();
+
+	/**
+	 * @param algo
+	 *        算法名称
+	 * @param provider
+	 *        提供者名称
+	 */
+	AlgorithmMetrics(final String algo, final String provider) {
+		this.algo = algo;
+		this.provider = provider;
+	}
+
+	/**
+	 * 记录一次加密
+	 * 
+	 * @param bytes
+	 *        第一轮输入的字节数
+	 * @param rounds
+	 *        摘要轮数
+	 * @param nanos
+	 *        耗时（纳秒）
+	 */
+	void record(final long bytes, final int rounds, final long nanos) {
+		operations.increment();
+		this.bytes.add(bytes);
+		this.rounds.add(rounds);
+		latency.record(nanos);
+	}
+
+	@Override
+	public String getAlgo() {
+		return algo;
+	}
+
+	@Override
+	public String getProvider() {
+		return provider;
+	}
+
+	@Override
+	public long getOperationCount() {
+		return operations.sum();
+	}
+
+	@Override
+	public long getBytesHashed() {
+		return bytes.sum();
+	}
+
+	@Override
+	public long getRoundCount() {
+		return rounds.sum();
+	}
+
+	@Override
+	public double getMeanLatencyNanos() {
+		return latency.getMean();
+	}
+
+	@Override
+	public long getP50LatencyNanos() {
+		return latency.getPercentile(50);
+	}
+
+	@Override
+	public long getP90LatencyNanos() {
+		return latency.getPercentile(90);
+	}
+
+	@Override
+	public long getP99LatencyNanos() {
+		return latency.getPercentile(99);
+	}
+
+	@Override
+	public long getP999LatencyNanos() {
+		return latency.getPercentile(99.9);
+	}
+
+	/**
+	 * 返回耗时直方图
+	 * 
+	 * @return 耗时直方图
+	 */
+	public LatencyHistogram getLatencyHistogram() {
+		return latency;
+	}
+
+	@Override
+	public void reset() {
+		operations.reset();
+		bytes.reset();
+		rounds.reset();
+		latency.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "AlgorithmMetrics{algo=" + algo + ", provider=" + provider + ", operations=" +
+				getOperationCount() + ", bytes=" + getBytesHashed() + ", rounds=" +
+				getRoundCount() + ", mean=" + (long) getMeanLatencyNanos() + "ns, p99=" +
+				getP99LatencyNanos() + "ns}";
+	}
+
+}
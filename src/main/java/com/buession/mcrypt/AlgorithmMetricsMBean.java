@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+/**
+ * 单个算法和提供者的加密统计，JMX 接口
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public interface AlgorithmMetricsMBean {
+
+	/**
+	 * 返回算法名称
+	 * 
+	 * @return 算法名称
+	 */
+	String getAlgo();
+
+	/**
+	 * 返回提供者名称
+	 * 
+	 * @return 提供者名称
+	 */
+	String getProvider();
+
+	/**
+	 * 返回加密次数
+	 * 
+	 * @return 加密次数
+	 */
+	long getOperationCount();
+
+	/**
+	 * 返回第一轮摘要中输入数据的总字节数；字符集与十六进制不兼容时包含加密密钥
+	 * 
+	 * @return 输入的总字节数
+	 */
+	long getBytesHashed();
+
+	/**
+	 * 返回执行的摘要轮数
+	 * 
+	 * @return 执行的摘要轮数
+	 */
+	long getRoundCount();
+
+	/**
+	 * 返回平均耗时（纳秒）
+	 * 
+	 * @return 平均耗时
+	 */
+	double getMeanLatencyNanos();
+
+	/**
+	 * 返回 50% 分位耗时上界（纳秒）
+	 * 
+	 * @return 50% 分位耗时上界
+	 */
+	long getP50LatencyNanos();
+
+	/**
+	 * 返回 90% 分位耗时上界（纳秒）
+	 * 
+	 * @return 90% 分位耗时上界
+	 */
+	long getP90LatencyNanos();
+
+	/**
+	 * 返回 99% 分位耗时上界（纳秒）
+	 * 
+	 * @return 99% 分位耗时上界
+	 */
+	long getP99LatencyNanos();
+
+	/**
+	 * 返回 99.9% 分位耗时上界（纳秒）
+	 * 
+	 * @return 99.9% 分位耗时上界
+	 */
+	long getP999LatencyNanos();
+
+	/**
+	 * 清空统计
+	 */
+	void reset();
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 异步加密的默认线程池
+ * 
+ * 运行在支持虚拟线程的 JDK（21 及以上）时，使用每个任务一个虚拟线程的执行器；否则使用 ForkJoinPool 公共池。
+ * 项目按 Java 8 编译，因此通过反射获取虚拟线程执行器
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class AsyncExecutors {
+
+	private final static Logger logger = LoggerFactory.getLogger(AsyncExecutors.class);
+
+	private AsyncExecutors() {
+	}
+
+	/**
+	 * 返回默认线程池，首次调用时创建
+	 * 
+	 * @return 默认线程池
+	 */
+	static Executor defaultExecutor() {
+		return Holder.EXECUTOR;
+	}
+
+	private static Executor create() {
+		try {
+			final Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			final Executor executor = (Executor) method.invoke(null);
+
+			logger.debug("Mcrypt async encode use virtual thread per task executor");
+
+			return executor;
+		} catch (final NoSuchMethodException e) {
+			logger.debug("Virtual threads not supported, mcrypt async encode use common pool");
+		} catch (final ReflectiveOperationException e) {
+			logger.warn("Create virtual thread executor failure: {}", e.getMessage());
+		} catch (final RuntimeException e) {
+			logger.warn("Create virtual thread executor failure: {}", e.getMessage());
+		}
+
+		return ForkJoinPool.commonPool();
+	}
+
+	private final static class Holder {
+
+		private final static Executor EXECUTOR = create();
+
+	}
+
+}
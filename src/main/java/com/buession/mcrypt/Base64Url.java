@@ -0,0 +1,314 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * URL 安全的 Base64 编码（RFC 4648 第 5 节），不带填充字符
+ * 
+ * 与 {@link Hex} 相同，使用查找表编解码，除返回 String 的方法外均直接写入调用方提供的缓冲区；
+ * 编码结果比十六进制短三分之一
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Base64Url {
+
+	private final static char[] ALPHABET = ("ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz" +
+			"0123456789-_").toCharArray();
+
+	/**
+	 * 同 ALPHABET，按 ASCII 字节存放
+	 */
+	private final static byte[] BYTE_ALPHABET = new byte[64];
+
+	/**
+	 * ASCII 字符到六位数值的查找表，非法字符为 -1
+	 */
+	private final static byte[] DECODE_TABLE = new byte[128];
+
+	static {
+		Arrays.fill(DECODE_TABLE, (byte) -1);
+
+		for (int i = 0; i < ALPHABET.length; i++) {
+			BYTE_ALPHABET[i] = (byte) ALPHABET[i];
+			DECODE_TABLE[ALPHABET[i]] = (byte) i;
+		}
+	}
+
+	private Base64Url() {
+	}
+
+	/**
+	 * 返回 length 个字节编码后的字符数
+	 * 
+	 * @param length
+	 *        字节数
+	 * @return 编码后的字符数
+	 */
+	public static int encodedLength(final int length) {
+		final int rest = length % 3;
+		return length / 3 * 4 + (rest == 0 ? 0 : rest + 1);
+	}
+
+	/**
+	 * 将字节数组编码为 Base64 字符串
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @return Base64 字符串
+	 */
+	public static String encode(final byte[] bytes) {
+		return encode(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 将字节数组的指定区间编码为 Base64 字符串
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @return Base64 字符串
+	 */
+	public static String encode(final byte[] bytes, final int offset, final int length) {
+		final byte[] ascii = new byte[encodedLength(length)];
+
+		encodeTo(bytes, offset, length, ascii, 0);
+
+		return new String(ascii, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * 将字节数组的指定区间编码为 Base64 字符，写入 dest
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 写入的字符数
+	 */
+	public static int encodeTo(final byte[] bytes, final int offset, final int length,
+			final char[] dest, final int destOffset) {
+		final int encodedLength = encodedLength(length);
+
+		checkCapacity(dest.length, destOffset, encodedLength);
+
+		int i = offset;
+		int j = destOffset;
+
+		for (final int end = offset + length - length % 3; i < end; i += 3, j += 4) {
+			final int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | bytes[i + 2] &
+					0xff;
+
+			dest[j] = ALPHABET[bits >>> 18];
+			dest[j + 1] = ALPHABET[(bits >>> 12) & 0x3f];
+			dest[j + 2] = ALPHABET[(bits >>> 6) & 0x3f];
+			dest[j + 3] = ALPHABET[bits & 0x3f];
+		}
+
+		final int rest = length % 3;
+
+		if (rest > 0) {
+			final int bits = (bytes[i] & 0xff) << 16 | (rest == 2 ? (bytes[i + 1] & 0xff) << 8 : 0);
+
+			dest[j] = ALPHABET[bits >>> 18];
+			dest[j + 1] = ALPHABET[(bits >>> 12) & 0x3f];
+			if (rest == 2) {
+				dest[j + 2] = ALPHABET[(bits >>> 6) & 0x3f];
+			}
+		}
+
+		return encodedLength;
+	}
+
+	/**
+	 * 将字节数组的指定区间编码为 Base64 ASCII 字节，写入 dest
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 写入的字节数
+	 */
+	public static int encodeTo(final byte[] bytes, final int offset, final int length,
+			final byte[] dest, final int destOffset) {
+		final int encodedLength = encodedLength(length);
+
+		checkCapacity(dest.length, destOffset, encodedLength);
+
+		int i = offset;
+		int j = destOffset;
+
+		for (final int end = offset + length - length % 3; i < end; i += 3, j += 4) {
+			final int bits = (bytes[i] & 0xff) << 16 | (bytes[i + 1] & 0xff) << 8 | bytes[i + 2] &
+					0xff;
+
+			dest[j] = BYTE_ALPHABET[bits >>> 18];
+			dest[j + 1] = BYTE_ALPHABET[(bits >>> 12) & 0x3f];
+			dest[j + 2] = BYTE_ALPHABET[(bits >>> 6) & 0x3f];
+			dest[j + 3] = BYTE_ALPHABET[bits & 0x3f];
+		}
+
+		final int rest = length % 3;
+
+		if (rest > 0) {
+			final int bits = (bytes[i] & 0xff) << 16 | (rest == 2 ? (bytes[i + 1] & 0xff) << 8 : 0);
+
+			dest[j] = BYTE_ALPHABET[bits >>> 18];
+			dest[j + 1] = BYTE_ALPHABET[(bits >>> 12) & 0x3f];
+			if (rest == 2) {
+				dest[j + 2] = BYTE_ALPHABET[(bits >>> 6) & 0x3f];
+			}
+		}
+
+		return encodedLength;
+	}
+
+	/**
+	 * 将不带填充的 URL 安全 Base64 字符序列解码为字节，写入 dest
+	 * 
+	 * @param base64
+	 *        Base64 字符序列
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 写入的字节数
+	 * @throws IllegalArgumentException
+	 *         长度非法、包含非法字符或末尾有多余的位
+	 */
+	public static int decodeTo(final CharSequence base64, final byte[] dest, final int destOffset) {
+		if (base64 == null) {
+			throw new IllegalArgumentException("Base64 could not be null");
+		}
+
+		final int length = decodedLength(base64.length());
+
+		if (length < 0) {
+			throw new IllegalArgumentException("Base64 length " + base64.length() + " is illegal");
+		}
+
+		checkCapacity(dest.length, destOffset, length);
+
+		if (tryDecodeTo(base64, dest, destOffset) == false) {
+			throw new IllegalArgumentException("Base64 contains illegal character");
+		}
+
+		return length;
+	}
+
+	/**
+	 * 返回 length 个字符解码后的字节数
+	 * 
+	 * @param length
+	 *        字符数
+	 * @return 解码后的字节数，长度非法时返回 -1
+	 */
+	static int decodedLength(final int length) {
+		return length % 4 == 1 ? -1 : length / 4 * 3 + Math.max(0, length % 4 - 1);
+	}
+
+	/**
+	 * 将 Base64 字符序列解码为字节，写入 dest；调用方需保证长度合法且缓冲区足够
+	 * 
+	 * @param base64
+	 *        Base64 字符序列
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 是否全部为合法字符，且末尾没有多余的位
+	 */
+	static boolean tryDecodeTo(final CharSequence base64, final byte[] dest, final int destOffset) {
+		final int length = base64.length();
+		int invalid = 0;
+		int i = 0;
+		int j = destOffset;
+
+		for (final int end = length - length % 4; i < end; i += 4, j += 3) {
+			final int a = decode(base64.charAt(i));
+			final int b = decode(base64.charAt(i + 1));
+			final int c = decode(base64.charAt(i + 2));
+			final int d = decode(base64.charAt(i + 3));
+			final int bits = a << 18 | b << 12 | c << 6 | d;
+
+			invalid |= a | b | c | d;
+			dest[j] = (byte) (bits >>> 16);
+			dest[j + 1] = (byte) (bits >>> 8);
+			dest[j + 2] = (byte) bits;
+		}
+
+		final int rest = length - i;
+
+		if (rest > 0) {
+			final int a = decode(base64.charAt(i));
+			final int b = decode(base64.charAt(i + 1));
+			final int c = rest == 3 ? decode(base64.charAt(i + 2)) : 0;
+			final int bits = a << 18 | b << 12 | c << 6;
+
+			invalid |= a | b | c;
+			dest[j] = (byte) (bits >>> 16);
+			if (rest == 3) {
+				dest[j + 1] = (byte) (bits >>> 8);
+			}
+
+			if (invalid >= 0 && (rest == 2 ? bits & 0xffff : bits & 0xff) != 0) {
+				return false;
+			}
+		}
+
+		return invalid >= 0;
+	}
+
+	private static int decode(final char c) {
+		return c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+	}
+
+	private static void checkCapacity(final int capacity, final int offset, final int required) {
+		if (offset < 0 || capacity - offset < required) {
+			throw new IllegalArgumentException("Destination buffer too small, required " +
+					required + " from offset " + offset);
+		}
+	}
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.security.MessageDigest;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 批量加密任务
+ * 
+ * 按批大小二分拆分输入，每个叶子任务只取一个摘要对象，依次加密该批中的全部对象，结果按输入顺序写入
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class BatchEncodeTask extends RecursiveAction {
+
+	private final static long serialVersionUID = 1L;
+
+	private final Mcrypt mcrypt;
+
+	private final Settings settings;
+
+	private final Object[] input;
+
+	private final String[] output;
+
+	private final int from;
+
+	private final int to;
+
+	private final int batchSize;
+
+	/**
+	 * @param mcrypt
+	 *        加密对象
+	 * @param settings
+	 *        整批共用的参数快照
+	 * @param input
+	 *        需要加密的对象
+	 * @param output
+	 *        加密结果
+	 * @param from
+	 *        起始位置（含）
+	 * @param to
+	 *        结束位置（不含）
+	 * @param batchSize
+	 *        每批对象数
+	 */
+	BatchEncodeTask(final Mcrypt mcrypt, final Settings settings, final Object[] input,
+			final String[] output, final int from, final int to, final int batchSize) {
+		this.mcrypt = mcrypt;
+		this.settings = settings;
+		this.input = input;
+		this.output = output;
+		this.from = from;
+		this.to = to;
+		this.batchSize = batchSize;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= batchSize) {
+			encode();
+		} else {
+			final int middle = (from + to) >>> 1;
+
+			invokeAll(new BatchEncodeTask(mcrypt, settings, input, output, from, middle, batchSize),
+					new BatchEncodeTask(mcrypt, settings, input, output, middle, to, batchSize));
+		}
+	}
+
+	/**
+	 * 在当前线程依次加密 [from, to) 中的对象
+	 */
+	void encode() {
+		final DigestEngine engine = settings.digestEngine();
+		final IterationEngine iteration = settings.iterationEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			for (int i = from; i < to; i++) {
+				output[i] = mcrypt.encode(settings, iteration, input[i], messageDigest);
+			}
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+}
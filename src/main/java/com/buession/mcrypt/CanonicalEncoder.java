@@ -0,0 +1,618 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.CharBuffer;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 对象规范化二进制编码
+ * 
+ * 将对象按以下格式逐个写入摘要，经一个小的复用缓冲区批量提交，不生成中间字符串；结果与 JVM、
+ * HashMap 遍历顺序无关。整数均为大端序，长度和个数为 4 字节无符号整数：
+ * 
+ * <pre>
+ * null                    0x00
+ * Boolean                 0x01 0x00|0x01
+ * Byte                    0x02 1 字节
+ * Short                   0x03 2 字节
+ * Integer                 0x04 4 字节
+ * Long                    0x05 8 字节
+ * Float                   0x06 Float.floatToIntBits，4 字节
+ * Double                  0x07 Double.doubleToLongBits，8 字节
+ * Character               0x08 2 字节
+ * CharSequence、char[]    0x10 UTF-8 字节数 UTF-8 字节
+ * byte[]                  0x11 字节数 字节
+ * Enum                    0x12 name() 的 UTF-8 字节数 UTF-8 字节
+ * 其它 Number             0x13 toString() 的 UTF-8 字节数 UTF-8 字节
+ * Collection、数组        0x20 元素个数 依次编码各元素
+ * Set（含 SortedSet）     0x22 元素个数 按元素编码排序后依次写入
+ * Map                     0x21 键值对个数 按键编码排序后依次写入 键 值
+ * 其它对象                0x7f toString() 的 UTF-8 字节数 UTF-8 字节
+ * </pre>
+ * 
+ * 排序按编码后的字节无符号逐字节比较；键（元素）全部为 String 时直接按 UTF-8 长度和码点比较，
+ * 与按编码比较的结果相同且无需额外编码。List 等有序集合保持原有顺序；
+ * SortedSet 与其它 Set 一样按元素编码排序，与比较器无关
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class CanonicalEncoder {
+
+	final static byte NULL = 0x00;
+
+	final static byte BOOLEAN = 0x01;
+
+	final static byte BYTE = 0x02;
+
+	final static byte SHORT = 0x03;
+
+	final static byte INT = 0x04;
+
+	final static byte LONG = 0x05;
+
+	final static byte FLOAT = 0x06;
+
+	final static byte DOUBLE = 0x07;
+
+	final static byte CHAR = 0x08;
+
+	final static byte STRING = 0x10;
+
+	final static byte BYTES = 0x11;
+
+	final static byte ENUM = 0x12;
+
+	final static byte NUMBER = 0x13;
+
+	final static byte LIST = 0x20;
+
+	final static byte MAP = 0x21;
+
+	final static byte SET = 0x22;
+
+	final static byte OBJECT = 0x7f;
+
+	/**
+	 * 最大嵌套深度，防止循环引用导致栈溢出
+	 */
+	final static int MAX_DEPTH = 256;
+
+	private final static int BUFFER_SIZE = 512;
+
+	private final static Comparator<byte[]> UNSIGNED = new Comparator<byte[]>() {
+
+		@Override
+		public int compare(final byte[] a, final byte[] b) {
+			for (int i = 0, length = Math.min(a.length, b.length); i < length; i++) {
+				final int diff = (a[i] & 0xff) - (b[i] & 0xff);
+
+				if (diff != 0) {
+					return diff;
+				}
+			}
+
+			return a.length - b.length;
+		}
+
+	};
+
+	private final static Comparator<Object> UTF8_STRING = new Comparator<Object>() {
+
+		@Override
+		public int compare(final Object a, final Object b) {
+			final String x = (String) a;
+			final String y = (String) b;
+			final long diff = utf8Length(x) - utf8Length(y);
+
+			if (diff != 0) {
+				return diff < 0 ? -1 : 1;
+			}
+
+			for (int i = 0, j = 0; i < x.length() && j < y.length();) {
+				final int cx = x.codePointAt(i);
+				final int cy = y.codePointAt(j);
+
+				if (cx != cy) {
+					return cx < cy ? -1 : 1;
+				}
+
+				i += Character.charCount(cx);
+				j += Character.charCount(cy);
+			}
+
+			return 0;
+		}
+
+	};
+
+	private final byte[] buffer;
+
+	private int position;
+
+	/**
+	 * 已写入摘要的字节数
+	 */
+	private long written;
+
+	private MessageDigest messageDigest;
+
+	/**
+	 * 用于排序时收集单个键的编码
+	 */
+	private ByteSink sink;
+
+	private boolean busy;
+
+	CanonicalEncoder() {
+		this.buffer = new byte[BUFFER_SIZE];
+	}
+
+	/**
+	 * 将对象的规范化编码写入摘要
+	 * 
+	 * @param messageDigest
+	 *        实现指定摘要算法的 MessageDigest 对象
+	 * @param object
+	 *        需要编码的对象
+	 * @return 写入摘要的字节数
+	 */
+	public static long encode(final MessageDigest messageDigest, final Object object) {
+		CanonicalEncoder encoder = Scratch.get().canonicalEncoder();
+
+		if (encoder.busy) {
+			encoder = new CanonicalEncoder();
+		}
+
+		encoder.busy = true;
+		encoder.messageDigest = messageDigest;
+
+		try {
+			encoder.write(object, 0);
+			encoder.flush();
+
+			return encoder.written;
+		} finally {
+			Arrays.fill(encoder.buffer, (byte) 0);
+			encoder.position = 0;
+			encoder.written = 0;
+			encoder.messageDigest = null;
+			encoder.busy = false;
+		}
+	}
+
+	private void write(final Object object, final int depth) {
+		if (depth > MAX_DEPTH) {
+			throw new IllegalArgumentException("Object nesting exceeds " + MAX_DEPTH +
+					", cyclic reference?");
+		}
+
+		if (object == null) {
+			writeByte(NULL);
+		} else if (object instanceof CharSequence) {
+			writeByte(STRING);
+			writeUtf8((CharSequence) object);
+		} else if (object instanceof Integer) {
+			writeByte(INT);
+			writeInt((Integer) object);
+		} else if (object instanceof Long) {
+			writeByte(LONG);
+			writeLong((Long) object);
+		} else if (object instanceof Double) {
+			writeByte(DOUBLE);
+			writeLong(Double.doubleToLongBits((Double) object));
+		} else if (object instanceof Boolean) {
+			writeByte(BOOLEAN);
+			writeByte(((Boolean) object) ? 1 : 0);
+		} else if (object instanceof Map) {
+			writeMap((Map<?, ?>) object, depth);
+		} else if (object instanceof Set) {
+			writeSet((Set<?>) object, depth);
+		} else if (object instanceof Collection) {
+			final Collection<?> collection = (Collection<?>) object;
+
+			writeByte(LIST);
+			writeInt(collection.size());
+			for (Object element : collection) {
+				write(element, depth + 1);
+			}
+		} else if (object instanceof byte[]) {
+			final byte[] bytes = (byte[]) object;
+
+			writeByte(BYTES);
+			writeInt(bytes.length);
+			writeBytes(bytes, 0, bytes.length);
+		} else if (object instanceof char[]) {
+			writeByte(STRING);
+			writeUtf8((char[]) object);
+		} else if (object instanceof Object[]) {
+			final Object[] array = (Object[]) object;
+
+			writeByte(LIST);
+			writeInt(array.length);
+			for (Object element : array) {
+				write(element, depth + 1);
+			}
+		} else if (object.getClass().isArray()) {
+			writePrimitiveArray(object);
+		} else if (object instanceof Float) {
+			writeByte(FLOAT);
+			writeInt(Float.floatToIntBits((Float) object));
+		} else if (object instanceof Short) {
+			writeByte(SHORT);
+			writeShort((Short) object);
+		} else if (object instanceof Byte) {
+			writeByte(BYTE);
+			writeByte((Byte) object);
+		} else if (object instanceof Character) {
+			writeByte(CHAR);
+			writeShort((Character) object);
+		} else if (object instanceof Enum) {
+			writeByte(ENUM);
+			writeUtf8(((Enum<?>) object).name());
+		} else if (object instanceof Number) {
+			writeByte(NUMBER);
+			writeUtf8(object.toString());
+		} else {
+			writeByte(OBJECT);
+			writeUtf8(object.toString());
+		}
+	}
+
+	private void writePrimitiveArray(final Object array) {
+		writeByte(LIST);
+
+		if (array instanceof int[]) {
+			final int[] values = (int[]) array;
+
+			writeInt(values.length);
+			for (int value : values) {
+				writeByte(INT);
+				writeInt(value);
+			}
+		} else if (array instanceof long[]) {
+			final long[] values = (long[]) array;
+
+			writeInt(values.length);
+			for (long value : values) {
+				writeByte(LONG);
+				writeLong(value);
+			}
+		} else if (array instanceof double[]) {
+			final double[] values = (double[]) array;
+
+			writeInt(values.length);
+			for (double value : values) {
+				writeByte(DOUBLE);
+				writeLong(Double.doubleToLongBits(value));
+			}
+		} else if (array instanceof float[]) {
+			final float[] values = (float[]) array;
+
+			writeInt(values.length);
+			for (float value : values) {
+				writeByte(FLOAT);
+				writeInt(Float.floatToIntBits(value));
+			}
+		} else if (array instanceof short[]) {
+			final short[] values = (short[]) array;
+
+			writeInt(values.length);
+			for (short value : values) {
+				writeByte(SHORT);
+				writeShort(value);
+			}
+		} else {
+			final boolean[] values = (boolean[]) array;
+
+			writeInt(values.length);
+			for (boolean value : values) {
+				writeByte(BOOLEAN);
+				writeByte(value ? 1 : 0);
+			}
+		}
+	}
+
+	private void writeMap(final Map<?, ?> map, final int depth) {
+		writeByte(MAP);
+		writeInt(map.size());
+
+		if (map.isEmpty()) {
+			return;
+		}
+
+		final Object[] keys = map.keySet().toArray();
+
+		if (allStrings(keys)) {
+			Arrays.sort(keys, UTF8_STRING);
+
+			for (Object key : keys) {
+				write(key, depth + 1);
+				write(map.get(key), depth + 1);
+			}
+		} else {
+			final byte[][] encodedKeys = new byte[keys.length][];
+			final Integer[] order = new Integer[keys.length];
+
+			for (int i = 0; i < keys.length; i++) {
+				encodedKeys[i] = encodeToBytes(keys[i], depth + 1);
+				order[i] = i;
+			}
+
+			Arrays.sort(order, new Comparator<Integer>() {
+
+				@Override
+				public int compare(final Integer a, final Integer b) {
+					return UNSIGNED.compare(encodedKeys[a], encodedKeys[b]);
+				}
+
+			});
+
+			for (Integer i : order) {
+				writeBytes(encodedKeys[i], 0, encodedKeys[i].length);
+				write(map.get(keys[i]), depth + 1);
+			}
+		}
+	}
+
+	private void writeSet(final Set<?> set, final int depth) {
+		writeByte(SET);
+		writeInt(set.size());
+
+		final Object[] elements = set.toArray();
+
+		if (allStrings(elements)) {
+			Arrays.sort(elements, UTF8_STRING);
+
+			for (Object element : elements) {
+				write(element, depth + 1);
+			}
+		} else {
+			final byte[][] encoded = new byte[elements.length][];
+
+			for (int i = 0; i < elements.length; i++) {
+				encoded[i] = encodeToBytes(elements[i], depth + 1);
+			}
+
+			Arrays.sort(encoded, UNSIGNED);
+
+			for (byte[] bytes : encoded) {
+				writeBytes(bytes, 0, bytes.length);
+			}
+		}
+	}
+
+	/**
+	 * 将对象编码为字节数组，用于排序
+	 */
+	private byte[] encodeToBytes(final Object object, final int depth) {
+		flush();
+
+		final MessageDigest target = messageDigest;
+		final long count = written;
+		final ByteSink collector = sink == null ? new ByteSink() : sink;
+
+		sink = null;
+		collector.reset();
+		messageDigest = collector;
+
+		try {
+			write(object, depth);
+			flush();
+
+			return collector.toByteArray();
+		} finally {
+			messageDigest = target;
+			written = count;
+			sink = collector;
+		}
+	}
+
+	private void writeUtf8(final CharSequence cs) {
+		final long length = utf8Length(cs);
+
+		if (length > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("CharSequence too long");
+		}
+
+		writeInt((int) length);
+
+		for (int i = 0, n = cs.length(); i < n; i++) {
+			final char c = cs.charAt(i);
+
+			if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(cs.charAt(i +
+					1))) {
+				writeCodePoint(Character.toCodePoint(c, cs.charAt(++i)));
+			} else if (Character.isSurrogate(c)) {
+				writeByte('?');
+			} else {
+				writeCodePoint(c);
+			}
+		}
+	}
+
+	private void writeUtf8(final char[] chars) {
+		writeUtf8(CharBuffer.wrap(chars));
+	}
+
+	private void writeCodePoint(final int codePoint) {
+		if (codePoint < 0x80) {
+			writeByte(codePoint);
+		} else if (codePoint < 0x800) {
+			ensure(2);
+			buffer[position++] = (byte) (0xc0 | (codePoint >> 6));
+			buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+		} else if (codePoint < 0x10000) {
+			ensure(3);
+			buffer[position++] = (byte) (0xe0 | (codePoint >> 12));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+			buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+		} else {
+			ensure(4);
+			buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+			buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+		}
+	}
+
+	/**
+	 * 返回 UTF-8 编码后的字节数；孤立的代理字符与 String.getBytes 一致替换为 '?'
+	 */
+	static long utf8Length(final CharSequence cs) {
+		long length = 0;
+
+		for (int i = 0, n = cs.length(); i < n; i++) {
+			final char c = cs.charAt(i);
+
+			if (c < 0x80) {
+				length++;
+			} else if (c < 0x800) {
+				length += 2;
+			} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(cs
+					.charAt(i + 1))) {
+				length += 4;
+				i++;
+			} else if (Character.isSurrogate(c)) {
+				length++;
+			} else {
+				length += 3;
+			}
+		}
+
+		return length;
+	}
+
+	private void writeByte(final int value) {
+		ensure(1);
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeShort(final int value) {
+		ensure(2);
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeInt(final int value) {
+		ensure(4);
+		buffer[position++] = (byte) (value >>> 24);
+		buffer[position++] = (byte) (value >>> 16);
+		buffer[position++] = (byte) (value >>> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	private void writeLong(final long value) {
+		writeInt((int) (value >>> 32));
+		writeInt((int) value);
+	}
+
+	private void writeBytes(final byte[] bytes, final int offset, final int length) {
+		if (length > buffer.length - position) {
+			flush();
+			messageDigest.update(bytes, offset, length);
+			written += length;
+		} else {
+			System.arraycopy(bytes, offset, buffer, position, length);
+			position += length;
+		}
+	}
+
+	private void ensure(final int length) {
+		if (buffer.length - position < length) {
+			flush();
+		}
+	}
+
+	private void flush() {
+		if (position > 0) {
+			messageDigest.update(buffer, 0, position);
+			written += position;
+			position = 0;
+		}
+	}
+
+	private static boolean allStrings(final Object[] objects) {
+		for (Object object : objects) {
+			if (object instanceof String == false) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	/**
+	 * 把写入的字节收集起来的 MessageDigest，只在对键排序时使用
+	 */
+	private final static class ByteSink extends MessageDigest {
+
+		private byte[] bytes = new byte[64];
+
+		private int length;
+
+		ByteSink() {
+			super("canonical-sink");
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, length);
+		}
+
+		@Override
+		protected void engineUpdate(final byte input) {
+			engineUpdate(new byte[] {input}, 0, 1);
+		}
+
+		@Override
+		protected void engineUpdate(final byte[] input, final int offset, final int len) {
+			if (bytes.length - length < len) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length << 1, length + len));
+			}
+
+			System.arraycopy(input, offset, bytes, length, len);
+			length += len;
+		}
+
+		@Override
+		protected byte[] engineDigest() {
+			return toByteArray();
+		}
+
+		@Override
+		protected void engineReset() {
+			length = 0;
+		}
+
+	}
+
+}
@@ -0,0 +1,422 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.Provider;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 信息摘要引擎
+ * 
+ * 算法和提供者只在创建引擎时解析一次，之后按线程分槽缓存已重置的 MessageDigest 对象；
+ * 提供者支持 clone() 时，新的摘要对象从原型克隆而来，不再重复查找提供者
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class DigestEngine {
+
+	/**
+	 * 每个 CPU 对应的缓存槽数
+	 */
+	private final static int SLOTS_PER_CPU = 2;
+
+	/**
+	 * 缓存槽数上限
+	 */
+	private final static int MAX_SLOTS = 256;
+
+	private final static ConcurrentMap<Key, DigestEngine> ENGINES = new ConcurrentHashMap<Key, DigestEngine>();
+
+	/**
+	 * 请求算法的名称
+	 */
+	private final String algo;
+
+	/**
+	 * 信息摘要对象的提供者
+	 */
+	private final Provider provider;
+
+	/**
+	 * 摘要对象原型
+	 */
+	private final MessageDigest prototype;
+
+	/**
+	 * 原型是否支持 clone()
+	 */
+	private final boolean cloneable;
+
+	/**
+	 * 摘要长度（字节）
+	 */
+	private final int digestLength;
+
+	/**
+	 * 缓存槽
+	 */
+	private final AtomicReferenceArray<MessageDigest> slots;
+
+	private final int mask;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder clones = new LongAdder();
+
+	private final LongAdder instances = new LongAdder();
+
+	private final LongAdder discards = new LongAdder();
+
+	/**
+	 * 加密统计
+	 */
+	private final AlgorithmMetrics metrics;
+
+	private final static Logger logger = LoggerFactory.getLogger(DigestEngine.class);
+
+	/**
+	 * @param algo
+	 *        请求算法的名称
+	 * @param provider
+	 *        信息摘要对象的提供者
+	 */
+	private DigestEngine(final String algo, final Provider provider) {
+		this.algo = algo;
+		this.prototype = newInstance(algo, provider);
+		this.provider = prototype.getProvider();
+		this.cloneable = isCloneable(prototype);
+		this.digestLength = prototype.getDigestLength();
+		this.metrics = Metrics.of(algo, this.provider.getName());
+
+		final int wanted = Math.min(MAX_SLOTS, Runtime.getRuntime().availableProcessors() *
+				SLOTS_PER_CPU);
+		int size = 1;
+		while(size < wanted) {
+			size <<= 1;
+		}
+
+		this.slots = new AtomicReferenceArray<MessageDigest>(size);
+		this.mask = size - 1;
+	}
+
+	/**
+	 * 返回指定算法和提供者的摘要引擎，同一组合共享同一个引擎
+	 * 
+	 * @param algo
+	 *        请求算法的名称
+	 * @param provider
+	 *        信息摘要对象的提供者，为 null 时按 JCA 默认顺序查找
+	 * @return 摘要引擎
+	 */
+	public static DigestEngine getInstance(final String algo, final Provider provider) {
+		if (algo == null || algo.length() == 0) {
+			throw new RuntimeException("Algo could not be null");
+		}
+
+		final Key key = new Key(algo, provider);
+		DigestEngine engine = ENGINES.get(key);
+
+		if (engine == null) {
+			final DigestEngine created = new DigestEngine(algo, provider);
+
+			engine = ENGINES.putIfAbsent(key, created);
+			if (engine == null) {
+				engine = created;
+			}
+		}
+
+		return engine;
+	}
+
+	/**
+	 * 返回请求算法的名称
+	 * 
+	 * @return 请求算法的名称
+	 */
+	public String getAlgo() {
+		return algo;
+	}
+
+	/**
+	 * 返回解析后的信息摘要对象的提供者
+	 * 
+	 * @return 信息摘要对象的提供者
+	 */
+	public Provider getProvider() {
+		return provider;
+	}
+
+	/**
+	 * 返回摘要长度（字节）
+	 * 
+	 * @return 摘要长度
+	 */
+	public int getDigestLength() {
+		return digestLength;
+	}
+
+	/**
+	 * 返回摘要对象是否通过 clone() 创建
+	 * 
+	 * @return 摘要对象是否通过 clone() 创建
+	 */
+	public boolean isCloneable() {
+		return cloneable;
+	}
+
+	/**
+	 * 返回该算法和提供者的加密统计，启用 {@link Metrics} 后才会记录
+	 * 
+	 * @return 加密统计
+	 */
+	public AlgorithmMetrics getMetrics() {
+		return metrics;
+	}
+
+	/**
+	 * 取出一个已重置的摘要对象，用完后需调用 {@link #release(MessageDigest)} 归还
+	 * 
+	 * @return 已重置的摘要对象
+	 */
+	public MessageDigest acquire() {
+		final int index = index();
+
+		MessageDigest messageDigest = slots.getAndSet(index, null);
+		if (messageDigest == null) {
+			messageDigest = slots.getAndSet((index + 1) & mask, null);
+		}
+
+		if (messageDigest != null) {
+			hits.increment();
+			return messageDigest;
+		}
+
+		misses.increment();
+		return create();
+	}
+
+	/**
+	 * 归还摘要对象；对象会被重置，槽已满时直接丢弃
+	 * 
+	 * @param messageDigest
+	 *        由 {@link #acquire()} 取出的摘要对象
+	 */
+	public void release(final MessageDigest messageDigest) {
+		if (messageDigest == null) {
+			return;
+		}
+
+		messageDigest.reset();
+
+		final int index = index();
+		if (slots.compareAndSet(index, null, messageDigest) == false &&
+				slots.compareAndSet((index + 1) & mask, null, messageDigest) == false) {
+			discards.increment();
+		}
+	}
+
+	/**
+	 * 创建一个新的、不进入缓存的摘要对象
+	 * 
+	 * @return 新的摘要对象
+	 */
+	public MessageDigest create() {
+		if (cloneable) {
+			try {
+				final MessageDigest messageDigest = (MessageDigest) prototype.clone();
+				clones.increment();
+				return messageDigest;
+			} catch (final CloneNotSupportedException e) {
+				logger.debug("Algo <{}> clone not supported, fall back to getInstance", algo);
+			}
+		}
+
+		instances.increment();
+		return newInstance(algo, provider);
+	}
+
+	/**
+	 * 返回缓存槽数
+	 * 
+	 * @return 缓存槽数
+	 */
+	public int getPoolSize() {
+		return slots.length();
+	}
+
+	/**
+	 * 返回当前空闲的缓存摘要对象数
+	 * 
+	 * @return 空闲的缓存摘要对象数
+	 */
+	public int getIdleCount() {
+		int count = 0;
+
+		for (int i = 0; i < slots.length(); i++) {
+			if (slots.get(i) != null) {
+				count++;
+			}
+		}
+
+		return count;
+	}
+
+	/**
+	 * 返回命中缓存的次数
+	 * 
+	 * @return 命中缓存的次数
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * 返回未命中缓存的次数
+	 * 
+	 * @return 未命中缓存的次数
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * 返回缓存命中率
+	 * 
+	 * @return 缓存命中率，尚无请求时为 0
+	 */
+	public double getHitRate() {
+		final long hit = hits.sum();
+		final long total = hit + misses.sum();
+
+		return total == 0 ? 0D : (double) hit / total;
+	}
+
+	/**
+	 * 返回通过 clone() 创建的摘要对象数
+	 * 
+	 * @return 通过 clone() 创建的摘要对象数
+	 */
+	public long getCloneCount() {
+		return clones.sum();
+	}
+
+	/**
+	 * 返回通过 MessageDigest.getInstance 创建的摘要对象数
+	 * 
+	 * @return 通过 MessageDigest.getInstance 创建的摘要对象数
+	 */
+	public long getInstanceCount() {
+		return instances.sum();
+	}
+
+	/**
+	 * 返回因缓存槽已满而丢弃的摘要对象数
+	 * 
+	 * @return 丢弃的摘要对象数
+	 */
+	public long getDiscardCount() {
+		return discards.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "DigestEngine{algo=" + algo + ", provider=" + provider.getName() + ", poolSize=" +
+				getPoolSize() + ", idle=" + getIdleCount() + ", hits=" + getHitCount() +
+				", misses=" + getMissCount() + "}";
+	}
+
+	private int index() {
+		long id = Thread.currentThread().getId();
+
+		id ^= id >>> 16;
+		id *= 0x9E3779B97F4A7C15L;
+
+		return (int) (id >>> 32) & mask;
+	}
+
+	private static MessageDigest newInstance(final String algo, final Provider provider) {
+		try {
+			return provider == null ? MessageDigest.getInstance(algo) : MessageDigest.getInstance(
+					algo, provider);
+		} catch (final NoSuchAlgorithmException e) {
+			logger.error(e.getMessage());
+			throw new SecurityException(e);
+		}
+	}
+
+	private static boolean isCloneable(final MessageDigest messageDigest) {
+		try {
+			messageDigest.clone();
+			return true;
+		} catch (final CloneNotSupportedException e) {
+			return false;
+		}
+	}
+
+	private final static class Key {
+
+		private final String algo;
+
+		private final Provider provider;
+
+		public Key(final String algo, final Provider provider) {
+			this.algo = algo;
+			this.provider = provider;
+		}
+
+		@Override
+		public int hashCode() {
+			return algo.hashCode() * 31 + System.identityHashCode(provider);
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (obj instanceof Key == false) {
+				return false;
+			}
+
+			final Key that = (Key) obj;
+			return algo.equals(that.algo) && provider == that.provider;
+		}
+
+	}
+
+}
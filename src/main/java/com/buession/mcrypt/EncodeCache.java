@@ -0,0 +1,413 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 加密结果缓存
+ * 
+ * 以（参数快照、加密密钥、输入）为键缓存十六进制结果，参数快照包含算法、提供者、字符集、重复加密次数等所有影响结果的参数，
+ * 按参数的值比较，修改 Mcrypt 的参数后旧结果自然失效；同一缓存可被多个 Mcrypt 共享，
+ * 参数相同（提供者为同一对象）的 Mcrypt 共享条目。
+ * 
+ * 超出容量时按 CLOCK 顺序淘汰：每次命中增加条目的访问频率（上限 {@link #MAX_FREQUENCY}），
+ * 扫描到频率不为 0 的条目时将频率减一并放回队尾，频率为 0 时淘汰，因此反复访问的热点键会被保留；
+ * 容量在并发写入时可能短暂超出。
+ * 
+ * 只缓存不可变输入：String、Number、Boolean、Character 的包装类型和枚举；其它对象（包括数组、集合）直接加密。
+ * 缓存中保存输入原文，对口令等敏感数据请评估后再启用
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class EncodeCache {
+
+	/**
+	 * 访问频率上限
+	 */
+	final static int MAX_FREQUENCY = 3;
+
+	private final ConcurrentMap<Key, Entry> entries = new ConcurrentHashMap<Key, Entry>();
+
+	/**
+	 * 淘汰扫描队列
+	 */
+	private final Queue<Entry> clock = new ConcurrentLinkedQueue<Entry>();
+
+	/**
+	 * 扫描队列中的条目数，包括已被替换、过期移除的条目
+	 */
+	private final AtomicInteger queued = new AtomicInteger();
+
+	/**
+	 * 最大条目数
+	 */
+	private final int maximumSize;
+
+	/**
+	 * 存活时间（纳秒），0 表示不过期
+	 */
+	private final long ttlNanos;
+
+	private final LongAdder hits = new LongAdder();
+
+	private final LongAdder misses = new LongAdder();
+
+	private final LongAdder evictions = new LongAdder();
+
+	private final LongAdder expirations = new LongAdder();
+
+	/**
+	 * @param maximumSize
+	 *        最大条目数
+	 */
+	public EncodeCache(final int maximumSize) {
+		this(maximumSize, 0, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @param maximumSize
+	 *        最大条目数
+	 * @param ttl
+	 *        存活时间，0 表示不过期
+	 * @param unit
+	 *        存活时间单位
+	 */
+	public EncodeCache(final int maximumSize, final long ttl, final TimeUnit unit) {
+		if (maximumSize < 1) {
+			throw new IllegalArgumentException("Maximum size could not less than 1");
+		}
+
+		if (ttl < 0) {
+			throw new IllegalArgumentException("TTL could not less than 0");
+		}
+
+		if (unit == null) {
+			throw new IllegalArgumentException("Time unit could not be null");
+		}
+
+		this.maximumSize = maximumSize;
+		this.ttlNanos = unit.toNanos(ttl);
+	}
+
+	/**
+	 * 返回输入是否可以缓存
+	 * 
+	 * @param object
+	 *        输入
+	 * @return 输入为不可变类型时返回 true
+	 */
+	static boolean isCacheable(final Object object) {
+		return object instanceof String || object instanceof Integer || object instanceof Long ||
+				object instanceof Double || object instanceof Float || object instanceof Short ||
+				object instanceof Byte || object instanceof Boolean || object instanceof Character ||
+				object instanceof Enum;
+	}
+
+	/**
+	 * 查找缓存的结果
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param salt
+	 *        加密密钥
+	 * @param object
+	 *        输入
+	 * @return 缓存的结果，不存在或已过期时返回 null
+	 */
+	String get(final Settings settings, final String salt, final Object object) {
+		final Key key = new Key(settings, salt, object);
+		final Entry entry = entries.get(key);
+
+		if (entry == null) {
+			misses.increment();
+			return null;
+		}
+
+		if (entry.isExpired(System.nanoTime())) {
+			if (entries.remove(key, entry)) {
+				expirations.increment();
+			}
+
+			misses.increment();
+			return null;
+		}
+
+		if (entry.frequency < MAX_FREQUENCY) {
+			entry.frequency++;
+		}
+
+		hits.increment();
+		return entry.value;
+	}
+
+	/**
+	 * 缓存结果
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param salt
+	 *        加密密钥
+	 * @param object
+	 *        输入
+	 * @param value
+	 *        加密结果
+	 */
+	void put(final Settings settings, final String salt, final Object object, final String value) {
+		final Key key = new Key(settings, salt, object);
+		final Entry entry = new Entry(key, value, ttlNanos == 0 ? 0 : System.nanoTime() + ttlNanos);
+
+		entries.put(key, entry);
+		offer(entry);
+
+		if (queued.get() > 2L * maximumSize) {
+			purge();
+		}
+
+		if (entries.size() > maximumSize) {
+			evict();
+		}
+	}
+
+	/**
+	 * 清空缓存，不重置统计
+	 */
+	public void clear() {
+		entries.clear();
+		clock.clear();
+		queued.set(0);
+	}
+
+	/**
+	 * 返回当前条目数
+	 * 
+	 * @return 当前条目数
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * 返回最大条目数
+	 * 
+	 * @return 最大条目数
+	 */
+	public int getMaximumSize() {
+		return maximumSize;
+	}
+
+	/**
+	 * 返回存活时间
+	 * 
+	 * @param unit
+	 *        时间单位
+	 * @return 存活时间，0 表示不过期
+	 */
+	public long getTtl(final TimeUnit unit) {
+		return unit.convert(ttlNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * 返回命中次数
+	 * 
+	 * @return 命中次数
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * 返回未命中次数
+	 * 
+	 * @return 未命中次数
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * 返回命中率
+	 * 
+	 * @return 命中率，尚无请求时为 0
+	 */
+	public double getHitRate() {
+		final long hit = hits.sum();
+		final long total = hit + misses.sum();
+
+		return total == 0 ? 0D : (double) hit / total;
+	}
+
+	/**
+	 * 返回因超出容量淘汰的条目数
+	 * 
+	 * @return 淘汰的条目数
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * 返回因过期移除的条目数
+	 * 
+	 * @return 过期移除的条目数
+	 */
+	public long getExpirationCount() {
+		return expirations.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "EncodeCache{size=" + size() + ", maximumSize=" + maximumSize + ", hits=" +
+				getHitCount() + ", misses=" + getMissCount() + ", evictions=" +
+				getEvictionCount() + ", expirations=" + getExpirationCount() + "}";
+	}
+
+	private void evict() {
+		final long now = System.nanoTime();
+		Entry entry;
+
+		while(entries.size() > maximumSize && (entry = poll()) != null) {
+			if (entries.get(entry.key) != entry) {
+				continue;
+			}
+
+			if (entry.isExpired(now)) {
+				if (entries.remove(entry.key, entry)) {
+					expirations.increment();
+				}
+			} else if (entry.frequency > 0) {
+				entry.frequency--;
+				offer(entry);
+			} else if (entries.remove(entry.key, entry)) {
+				evictions.increment();
+			}
+		}
+	}
+
+	/**
+	 * 从扫描队列中清除已被替换、过期移除的条目，保留的条目不改变访问频率
+	 */
+	private void purge() {
+		Entry entry;
+
+		for (int i = queued.get(); i > 0 && (entry = poll()) != null; i--) {
+			if (entries.get(entry.key) == entry) {
+				offer(entry);
+			}
+		}
+	}
+
+	private Entry poll() {
+		final Entry entry = clock.poll();
+
+		if (entry != null) {
+			queued.decrementAndGet();
+		}
+
+		return entry;
+	}
+
+	private void offer(final Entry entry) {
+		clock.offer(entry);
+		queued.incrementAndGet();
+	}
+
+	private final static class Entry {
+
+		private final Key key;
+
+		private final String value;
+
+		private final long expireAt;
+
+		/**
+		 * 访问频率，并发更新时允许少量丢失
+		 */
+		private volatile int frequency;
+
+		public Entry(final Key key, final String value, final long expireAt) {
+			this.key = key;
+			this.value = value;
+			this.expireAt = expireAt;
+		}
+
+		boolean isExpired(final long now) {
+			return expireAt != 0 && now - expireAt >= 0;
+		}
+
+	}
+
+	private final static class Key {
+
+		private final Settings settings;
+
+		private final String salt;
+
+		private final Object object;
+
+		private final int hash;
+
+		public Key(final Settings settings, final String salt, final Object object) {
+			this.settings = settings;
+			this.salt = salt;
+			this.object = object;
+
+			int h = settings.hashCode();
+			h = h * 31 + (salt == null ? 0 : salt.hashCode());
+			h = h * 31 + object.hashCode();
+			this.hash = h;
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+			if (this == obj) {
+				return true;
+			}
+
+			if (obj instanceof Key == false) {
+				return false;
+			}
+
+			final Key that = (Key) obj;
+			return settings.equals(that.settings) && object.equals(that.object) && (salt == null ?
+					that.salt == null : salt.equals(that.salt));
+		}
+
+	}
+
+}
@@ -0,0 +1,234 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * 十六进制编码
+ * 
+ * 使用预先计算的 256 项查找表，每个字节只需一次查表；解码同样查表，接受大小写字母；
+ * 除返回 String 的方法外，均直接写入调用方提供的缓冲区，不产生额外对象
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Hex {
+
+	private final static char[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+			'a', 'b', 'c', 'd', 'e', 'f'};
+
+	/**
+	 * 字节到两位十六进制字符的查找表，下标 2 * b 为高位，2 * b + 1 为低位
+	 */
+	private final static char[] CHAR_TABLE = new char[512];
+
+	/**
+	 * 同 CHAR_TABLE，按 ASCII 字节存放
+	 */
+	private final static byte[] BYTE_TABLE = new byte[512];
+
+	/**
+	 * ASCII 字符到十六进制数值的查找表，非十六进制字符为 -1
+	 */
+	private final static byte[] DECODE_TABLE = new byte[128];
+
+	static {
+		Arrays.fill(DECODE_TABLE, (byte) -1);
+
+		for (int i = 0; i < 16; i++) {
+			DECODE_TABLE[HEX_DIGITS[i]] = (byte) i;
+			DECODE_TABLE[Character.toUpperCase(HEX_DIGITS[i])] = (byte) i;
+		}
+
+		for (int i = 0; i < 256; i++) {
+			CHAR_TABLE[i << 1] = HEX_DIGITS[i >>> 4];
+			CHAR_TABLE[(i << 1) + 1] = HEX_DIGITS[i & 0x0f];
+			BYTE_TABLE[i << 1] = (byte) HEX_DIGITS[i >>> 4];
+			BYTE_TABLE[(i << 1) + 1] = (byte) HEX_DIGITS[i & 0x0f];
+		}
+	}
+
+	private Hex() {
+	}
+
+	/**
+	 * 将字节数组编码为小写十六进制字符串
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @return 十六进制字符串
+	 */
+	public static String encode(final byte[] bytes) {
+		return encode(bytes, 0, bytes.length);
+	}
+
+	/**
+	 * 将字节数组的指定区间编码为小写十六进制字符串
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @return 十六进制字符串
+	 */
+	public static String encode(final byte[] bytes, final int offset, final int length) {
+		final byte[] ascii = new byte[length << 1];
+
+		encodeTo(bytes, offset, length, ascii, 0);
+
+		return new String(ascii, StandardCharsets.ISO_8859_1);
+	}
+
+	/**
+	 * 将字节数组的指定区间编码为十六进制字符，写入 dest
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 写入的字符数
+	 */
+	public static int encodeTo(final byte[] bytes, final int offset, final int length,
+			final char[] dest, final int destOffset) {
+		checkCapacity(dest.length, destOffset, length << 1);
+
+		for (int i = offset, j = destOffset, end = offset + length; i < end; i++, j += 2) {
+			final int index = (bytes[i] & 0xff) << 1;
+
+			dest[j] = CHAR_TABLE[index];
+			dest[j + 1] = CHAR_TABLE[index + 1];
+		}
+
+		return length << 1;
+	}
+
+	/**
+	 * 将字节数组的指定区间编码为十六进制 ASCII 字节，写入 dest
+	 * 
+	 * @param bytes
+	 *        字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 写入的字节数
+	 */
+	public static int encodeTo(final byte[] bytes, final int offset, final int length,
+			final byte[] dest, final int destOffset) {
+		checkCapacity(dest.length, destOffset, length << 1);
+
+		for (int i = offset, j = destOffset, end = offset + length; i < end; i++, j += 2) {
+			final int index = (bytes[i] & 0xff) << 1;
+
+			dest[j] = BYTE_TABLE[index];
+			dest[j + 1] = BYTE_TABLE[index + 1];
+		}
+
+		return length << 1;
+	}
+
+	/**
+	 * 将十六进制字符序列（大小写均可）解码为字节，写入 dest
+	 * 
+	 * @param hex
+	 *        十六进制字符序列
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 写入的字节数
+	 * @throws IllegalArgumentException
+	 *         长度为奇数或包含非十六进制字符
+	 */
+	public static int decodeTo(final CharSequence hex, final byte[] dest, final int destOffset) {
+		if (hex == null) {
+			throw new IllegalArgumentException("Hex could not be null");
+		}
+
+		if ((hex.length() & 1) != 0) {
+			throw new IllegalArgumentException("Hex length " + hex.length() + " is odd");
+		}
+
+		checkCapacity(dest.length, destOffset, hex.length() >>> 1);
+
+		if (tryDecodeTo(hex, dest, destOffset) == false) {
+			throw new IllegalArgumentException("Hex contains illegal character");
+		}
+
+		return hex.length() >>> 1;
+	}
+
+	/**
+	 * 将十六进制字符序列解码为字节，写入 dest；调用方需保证长度为偶数且缓冲区足够
+	 * 
+	 * @param hex
+	 *        十六进制字符序列
+	 * @param dest
+	 *        目标缓冲区
+	 * @param destOffset
+	 *        目标缓冲区起始位置
+	 * @return 是否全部为十六进制字符
+	 */
+	static boolean tryDecodeTo(final CharSequence hex, final byte[] dest, final int destOffset) {
+		int invalid = 0;
+
+		for (int i = 0, j = destOffset, end = hex.length(); i < end; i += 2, j++) {
+			final int high = decode(hex.charAt(i));
+			final int low = decode(hex.charAt(i + 1));
+
+			invalid |= high | low;
+			dest[j] = (byte) ((high << 4) | low);
+		}
+
+		return invalid >= 0;
+	}
+
+	private static int decode(final char c) {
+		return c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+	}
+
+	private static void checkCapacity(final int capacity, final int offset, final int required) {
+		if (offset < 0 || capacity - offset < required) {
+			throw new IllegalArgumentException("Destination buffer too small, required " +
+					required + " from offset " + offset);
+		}
+	}
+
+}
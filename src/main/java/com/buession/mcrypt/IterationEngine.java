@@ -0,0 +1,352 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * 重复加密引擎
+ * 
+ * 第二轮起的输入直接在复用的字节缓冲区中构造：十六进制字符按 ASCII 写入，加密密钥的字节只编码一次，
+ * 每一轮只剩下摘要本身的开销；字符集无法保证与字符串拼接结果逐字节一致时，退回按拼接后的字符序列编码。
+ * 加密密钥在输入之前且不短于一个分组时，保存吸收密钥后的摘要中间状态，每一轮从该状态克隆开始
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class IterationEngine {
+
+	private final static String HEX_SAMPLE = "0123456789abcdef";
+
+	/**
+	 * 前缀密钥不短于该字节数时才保存摘要中间状态，更短的密钥直接吸收比克隆更快
+	 */
+	final static int MIDSTATE_THRESHOLD = 64;
+
+	/**
+	 * 字符集
+	 */
+	private final Charset charset;
+
+	/**
+	 * 加密密钥
+	 */
+	private final String salt;
+
+	/**
+	 * 加密密钥的字节
+	 */
+	private final byte[] saltBytes;
+
+	/**
+	 * 每一轮输入的构造方式
+	 */
+	private final ChainMode chainMode;
+
+	/**
+	 * 加密密钥的位置
+	 */
+	private final SaltPosition saltPosition;
+
+	/**
+	 * 十六进制字符串加上加密密钥，按字节拼接是否与字符串拼接后编码一致
+	 */
+	private final boolean byteCompatible;
+
+	/**
+	 * 吸收前缀密钥后的摘要中间状态，只用于克隆，不会被修改
+	 */
+	private final MessageDigest midstate;
+
+	/**
+	 * @param charset
+	 *        字符集
+	 * @param salt
+	 *        加密密钥，可为 null
+	 * @param chainMode
+	 *        每一轮输入的构造方式
+	 * @param saltPosition
+	 *        加密密钥的位置
+	 * @param digestEngine
+	 *        用于创建摘要中间状态的引擎，为 null 时不保存中间状态
+	 */
+	IterationEngine(final Charset charset, final String salt, final ChainMode chainMode,
+			final SaltPosition saltPosition, final DigestEngine digestEngine) {
+		this.charset = charset;
+		this.salt = salt == null ? "" : salt;
+		this.saltBytes = this.salt.getBytes(charset);
+		this.chainMode = chainMode;
+		this.saltPosition = saltPosition;
+		this.byteCompatible = isByteCompatible(charset, this.salt, saltBytes);
+
+		if (digestEngine != null && digestEngine.isCloneable() && saltPosition.isPrefix() &&
+				saltBytes.length >= MIDSTATE_THRESHOLD) {
+			midstate = digestEngine.create();
+			midstate.update(saltBytes);
+		} else {
+			midstate = null;
+		}
+	}
+
+	Charset getCharset() {
+		return charset;
+	}
+
+	String getSalt() {
+		return salt;
+	}
+
+	byte[] getSaltBytes() {
+		return saltBytes;
+	}
+
+	ChainMode getChainMode() {
+		return chainMode;
+	}
+
+	SaltPosition getSaltPosition() {
+		return saltPosition;
+	}
+
+	/**
+	 * 按字节分别编码输入和加密密钥，是否与字符串拼接后编码一致
+	 * 
+	 * @return 是否一致
+	 */
+	boolean isByteCompatible() {
+		return byteCompatible;
+	}
+
+	/**
+	 * 返回是否保存了摘要中间状态
+	 * 
+	 * @return 是否保存了摘要中间状态
+	 */
+	boolean hasMidstate() {
+		return midstate != null;
+	}
+
+	/**
+	 * 按加密密钥的位置拼接字符序列，用于无法按字节拼接的字符集；返回的是视图，不复制 text
+	 * 
+	 * @param text
+	 *        字符序列
+	 * @return 加上加密密钥的字符序列
+	 */
+	CharSequence join(final CharSequence text) {
+		if (salt.length() == 0) {
+			return text;
+		}
+
+		switch (saltPosition) {
+			case PREFIX:
+				return new Joined(salt, text, "");
+			case BOTH:
+				return new Joined(salt, text, salt);
+			default:
+				return new Joined("", text, salt);
+		}
+	}
+
+	/**
+	 * 开始一轮摘要：需要前缀密钥时，从摘要中间状态克隆，或向 messageDigest 写入密钥
+	 * 
+	 * @param messageDigest
+	 *        已重置的 MessageDigest 对象
+	 * @return 可继续写入输入的 MessageDigest 对象
+	 */
+	MessageDigest begin(final MessageDigest messageDigest) {
+		if (saltPosition.isPrefix()) {
+			if (midstate != null) {
+				try {
+					return (MessageDigest) midstate.clone();
+				} catch (final CloneNotSupportedException e) {
+					throw new SecurityException(e);
+				}
+			}
+
+			messageDigest.update(saltBytes);
+		}
+
+		return messageDigest;
+	}
+
+	/**
+	 * 结束一轮摘要：需要后缀密钥时写入密钥，并将摘要写入 dest
+	 * 
+	 * @param messageDigest
+	 *        由 {@link #begin(MessageDigest)} 返回的 MessageDigest 对象
+	 * @param dest
+	 *        摘要写入的缓冲区
+	 * @return 摘要长度
+	 */
+	int end(final MessageDigest messageDigest, final byte[] dest) {
+		if (saltPosition.isSuffix()) {
+			messageDigest.update(saltBytes);
+		}
+
+		try {
+			return messageDigest.digest(dest, 0, dest.length);
+		} catch (final DigestException e) {
+			throw new SecurityException(e);
+		}
+	}
+
+	/**
+	 * 在第一轮摘要的基础上继续加密，直到完成 count 轮
+	 * 
+	 * @param messageDigest
+	 *        实现指定摘要算法的 MessageDigest 对象，须已重置
+	 * @param digest
+	 *        第一轮摘要，同时作为每一轮结果的缓冲区
+	 * @param length
+	 *        第一轮摘要长度
+	 * @param count
+	 *        总轮数
+	 * @return 最后一轮摘要长度
+	 */
+	int iterate(final MessageDigest messageDigest, final byte[] digest, int length,
+			final int count) {
+		if (count <= 1) {
+			return length;
+		}
+
+		if (chainMode == ChainMode.RAW) {
+			for (int i = 1; i < count; i++) {
+				final MessageDigest round = begin(messageDigest);
+
+				round.update(digest, 0, length);
+				length = end(round, digest);
+			}
+		} else if (byteCompatible) {
+			final byte[] hex = Scratch.get().hex(length << 1);
+
+			for (int i = 1; i < count; i++) {
+				final int hexLength = Hex.encodeTo(digest, 0, length, hex, 0);
+				final MessageDigest round = begin(messageDigest);
+
+				round.update(hex, 0, hexLength);
+				length = end(round, digest);
+			}
+		} else {
+			final TextEncoder textEncoder = Scratch.get().textEncoder();
+
+			try {
+				for (int i = 1; i < count; i++) {
+					textEncoder.update(messageDigest, join(Hex.encode(digest, 0, length)), charset);
+					length = messageDigest.digest(digest, 0, digest.length);
+				}
+			} catch (final DigestException e) {
+				throw new SecurityException(e);
+			}
+		}
+
+		return length;
+	}
+
+	/**
+	 * 前缀、正文、后缀拼接而成的字符序列视图
+	 */
+	private final static class Joined implements CharSequence {
+
+		private final String prefix;
+
+		private final CharSequence text;
+
+		private final String suffix;
+
+		private final int textEnd;
+
+		Joined(final String prefix, final CharSequence text, final String suffix) {
+			this.prefix = prefix;
+			this.text = text;
+			this.suffix = suffix;
+			this.textEnd = prefix.length() + text.length();
+		}
+
+		@Override
+		public int length() {
+			return textEnd + suffix.length();
+		}
+
+		@Override
+		public char charAt(final int index) {
+			if (index < prefix.length()) {
+				return prefix.charAt(index);
+			} else if (index < textEnd) {
+				return text.charAt(index - prefix.length());
+			} else {
+				return suffix.charAt(index - textEnd);
+			}
+		}
+
+		@Override
+		public CharSequence subSequence(final int start, final int end) {
+			return toString().subSequence(start, end);
+		}
+
+		@Override
+		public String toString() {
+			return new StringBuilder(length()).append(prefix).append(text).append(suffix)
+					.toString();
+		}
+
+	}
+
+	private static boolean isByteCompatible(final Charset charset, final String salt,
+			final byte[] saltBytes) {
+		if (StandardCharsets.UTF_8.equals(charset) || StandardCharsets.US_ASCII.equals(charset) ||
+				StandardCharsets.ISO_8859_1.equals(charset)) {
+			return true;
+		}
+
+		final byte[] hex = HEX_SAMPLE.getBytes(charset);
+
+		if (Arrays.equals(hex, HEX_SAMPLE.getBytes(StandardCharsets.US_ASCII)) == false) {
+			return false;
+		}
+
+		final byte[] suffixed = (HEX_SAMPLE + salt).getBytes(charset);
+		final byte[] prefixed = (salt + HEX_SAMPLE).getBytes(charset);
+		if (suffixed.length != hex.length + saltBytes.length ||
+				prefixed.length != hex.length + saltBytes.length) {
+			return false;
+		}
+
+		for (int i = 0; i < saltBytes.length; i++) {
+			if (suffixed[hex.length + i] != saltBytes[i] || prefixed[i] != saltBytes[i]) {
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+}
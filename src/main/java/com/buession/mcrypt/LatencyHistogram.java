@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 耗时直方图
+ * 
+ * 按 2 的幂分段，每段再等分为 4 个桶，相对误差不超过 25%；每个桶是一个 LongAdder，
+ * 多线程同时记录时没有竞争，读取的结果为近似快照
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * 每段的桶数（2 的幂）
+	 */
+	private final static int SUB_BUCKET_BITS = 2;
+
+	private final static int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	private final static int BUCKETS = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	private final LongAdder count = new LongAdder();
+
+	private final LongAdder total = new LongAdder();
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++) {
+			buckets[i] = new LongAdder();
+		}
+	}
+
+	/**
+	 * 记录一次耗时
+	 * 
+	 * @param nanos
+	 *        耗时（纳秒），小于 0 时按 0 记录
+	 */
+	public void record(final long nanos) {
+		final long value = nanos < 0 ? 0 : nanos;
+
+		buckets[index(value)].increment();
+		count.increment();
+		total.add(value);
+	}
+
+	/**
+	 * 返回记录次数
+	 * 
+	 * @return 记录次数
+	 */
+	public long getCount() {
+		return count.sum();
+	}
+
+	/**
+	 * 返回总耗时（纳秒）
+	 * 
+	 * @return 总耗时
+	 */
+	public long getTotal() {
+		return total.sum();
+	}
+
+	/**
+	 * 返回平均耗时（纳秒）
+	 * 
+	 * @return 平均耗时，尚无记录时为 0
+	 */
+	public double getMean() {
+		final long n = count.sum();
+		return n == 0 ? 0D : (double) total.sum() / n;
+	}
+
+	/**
+	 * 返回指定百分位的耗时上界（纳秒）
+	 * 
+	 * @param percentile
+	 *        百分位，取值 0 到 100
+	 * @return 耗时上界，尚无记录时为 0
+	 */
+	public long getPercentile(final double percentile) {
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must between 0 and 100");
+		}
+
+		final long[] snapshot = snapshot();
+		long n = 0;
+
+		for (long value : snapshot) {
+			n += value;
+		}
+
+		if (n == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * n));
+		long seen = 0;
+
+		for (int i = 0; i < snapshot.length; i++) {
+			seen += snapshot[i];
+
+			if (seen >= rank) {
+				return upperBound(i);
+			}
+		}
+
+		return upperBound(snapshot.length - 1);
+	}
+
+	/**
+	 * 返回各桶计数的快照，下标 i 的桶上界为 {@link #upperBound(int)}
+	 * 
+	 * @return 各桶计数
+	 */
+	public long[] snapshot() {
+		final long[] snapshot = new long[BUCKETS];
+
+		for (int i = 0; i < BUCKETS; i++) {
+			snapshot[i] = buckets[i].sum();
+		}
+
+		return snapshot;
+	}
+
+	/**
+	 * 清空记录
+	 */
+	public void reset() {
+		for (LongAdder bucket : buckets) {
+			bucket.reset();
+		}
+
+		count.reset();
+		total.reset();
+	}
+
+	/**
+	 * 返回桶的上界（纳秒，含）
+	 * 
+	 * @param index
+	 *        桶下标
+	 * @return 桶的上界
+	 */
+	public static long upperBound(final int index) {
+		if (index < SUB_BUCKETS) {
+			return index;
+		}
+
+		final int shift = (index >>> SUB_BUCKET_BITS) - 1;
+		final long lower = (long) (SUB_BUCKETS | (index & (SUB_BUCKETS - 1))) << shift;
+		final long upper = lower + (1L << shift) - 1;
+
+		return upper < 0 ? Long.MAX_VALUE : upper;
+	}
+
+	static int index(final long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+
+		final int shift = 63 - Long.numberOfLeadingZeros(value) - SUB_BUCKET_BITS;
+		return ((shift + 1) << SUB_BUCKET_BITS) | (int) ((value >>> shift) & (SUB_BUCKETS - 1));
+	}
+
+}
@@ -26,10 +26,26 @@
  */
 package com.buession.mcrypt;
 
-import java.io.UnsupportedEncodingException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
 import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
 import java.security.Provider;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -52,37 +68,86 @@ public class Mcrypt {
 
 	public final static String SHA512 = "SHA-512";
 
-	private final static char[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
-			'a', 'b', 'c', 'd', 'e', 'f'};
+	/**
+	 * 文件分段映射时每段的默认大小
+	 */
+	public final static int DEFAULT_MAP_WINDOW_SIZE = 64 * 1024 * 1024;
+
+	/**
+	 * 文件映射到内存的默认阈值
+	 */
+	public final static long DEFAULT_MAP_THRESHOLD = 1024 * 1024;
+
+	/**
+	 * 批量加密时每批的默认对象数
+	 */
+	public final static int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * 影响加密结果的参数快照
+	 */
+	private volatile Settings settings;
+
+	/**
+	 * 是否为不可变实例
+	 */
+	private final boolean immutable;
+
+	/**
+	 * 文件分段映射时每段的大小
+	 */
+	private volatile int mapWindowSize = DEFAULT_MAP_WINDOW_SIZE;
+
+	/**
+	 * 文件大小不小于该值时才映射到内存
+	 */
+	private volatile long mapThreshold = DEFAULT_MAP_THRESHOLD;
+
+	/**
+	 * 批量加密时每批的对象数
+	 */
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+	/**
+	 * 批量加密的并行度，0 表示由线程池决定
+	 */
+	private volatile int parallelism;
+
+	/**
+	 * 批量加密使用的线程池
+	 */
+	private volatile ForkJoinPool forkJoinPool;
 
 	/**
-	 * 请求算法的名称
+	 * 加密结果缓存，为 null 时不缓存
 	 */
-	private String algo;
+	private volatile EncodeCache cache;
 
 	/**
-	 * 加密密钥
+	 * 异步加密使用的线程池，为 null 时使用默认线程池
 	 */
-	private String salt;
+	private volatile Executor asyncExecutor;
 
 	/**
-	 * 字符串编码
+	 * 异步加密时最多同时等待和执行的任务数，0 表示不限制
 	 */
-	private String characterEncoding;
+	private volatile int maxPendingAsync;
 
 	/**
-	 * 信息摘要对象的提供者
+	 * 异步加密时正在等待和执行的任务数
 	 */
-	private Provider provider = null;
+	private final AtomicInteger pendingAsync = new AtomicInteger();
 
 	/**
-	 * 重复加密次数
+	 * 按并行度创建的专用线程池
 	 */
-	private int count = 1;
+	private volatile ForkJoinPool ownPool;
 
 	private final static Logger logger = LoggerFactory.getLogger(Mcrypt.class);
 
 	public Mcrypt() {
+		this(new Settings(null, null, null, null, 1, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
 	}
 
 	/**
@@ -90,7 +155,8 @@ public class Mcrypt {
 	 *        请求算法的名称
 	 */
 	public Mcrypt(final String algo) {
-		this.algo = algo;
+		this(new Settings(algo, null, null, null, 1, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
 	}
 
 	/**
@@ -122,8 +188,8 @@ public class Mcrypt {
 	 *        信息摘要对象的提供者
 	 */
 	public Mcrypt(final String algo, final Provider provider) {
-		this.algo = algo;
-		this.provider = provider;
+		this(new Settings(algo, provider, null, null, 1, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
 	}
 
 	/**
@@ -133,8 +199,8 @@ public class Mcrypt {
 	 *        字符编码
 	 */
 	public Mcrypt(final String algo, final String characterEncoding) {
-		this.algo = algo;
-		this.characterEncoding = characterEncoding;
+		this(new Settings(algo, null, characterEncoding, null, 1, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
 	}
 
 	/**
@@ -146,9 +212,8 @@ public class Mcrypt {
 	 *        信息摘要对象的提供者
 	 */
 	public Mcrypt(final String algo, final String characterEncoding, final Provider provider) {
-		this.algo = algo;
-		this.characterEncoding = characterEncoding;
-		this.provider = provider;
+		this(new Settings(algo, provider, characterEncoding, null, 1, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
 	}
 
 	/**
@@ -202,10 +267,8 @@ public class Mcrypt {
 	 */
 	public Mcrypt(final String algo, final String characterEncoding, final String salt,
 			final Provider provider) {
-		this.algo = algo;
-		this.characterEncoding = characterEncoding;
-		this.salt = salt;
-		this.provider = provider;
+		this(new Settings(algo, provider, characterEncoding, salt, 1, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
 	}
 
 	/**
@@ -237,14 +300,52 @@ public class Mcrypt {
 	 */
 	public Mcrypt(final String algo, final String characterEncoding, final String salt,
 			final int count, final Provider provider) {
-		this(algo, characterEncoding, salt);
+		this(new Settings(algo, provider, characterEncoding, salt, count, ChainMode.HEX, SaltPosition.SUFFIX,
+				ObjectFormat.TO_STRING, OutputEncoding.HEX), false);
+	}
 
-		if (count < 1) {
-			throw new IllegalArgumentException("Count could not less than 1");
-		}
+	/**
+	 * @param settings
+	 *        影响加密结果的参数快照
+	 * @param immutable
+	 *        是否为不可变实例
+	 */
+	private Mcrypt(final Settings settings, final boolean immutable) {
+		this.settings = settings;
+		this.immutable = immutable;
+	}
+
+	/**
+	 * @param builder
+	 *        构建器
+	 */
+	private Mcrypt(final Builder builder) {
+		this(new Settings(builder.algo, builder.provider, builder.characterEncoding, builder.salt,
+				builder.count, builder.chainMode, builder.saltPosition,
+				builder.objectFormat, builder.outputEncoding).resolve(), true);
+
+		this.mapWindowSize = builder.mapWindowSize;
+		this.mapThreshold = builder.mapThreshold;
+		this.batchSize = builder.batchSize;
+		this.parallelism = builder.parallelism;
+		this.forkJoinPool = builder.forkJoinPool;
+		this.cache = builder.cache;
+		this.asyncExecutor = builder.asyncExecutor;
+		this.maxPendingAsync = builder.maxPendingAsync;
+	}
 
-		this.count = count;
-		this.provider = provider;
+	/**
+	 * 返回不可变 Mcrypt 的构建器
+	 * 
+	 * 构建出的实例在创建时即解析算法、提供者和字符集，之后不可修改，可作为单例被任意多个线程同时使用；
+	 * 需要按调用区分的参数（如每个用户的加密密钥）通过 {@link #encode(Object, String)} 传入
+	 * 
+	 * @param algo
+	 *        请求算法的名称
+	 * @return 构建器
+	 */
+	public static Builder builder(final String algo) {
+		return new Builder(algo);
 	}
 
 	/**
@@ -253,7 +354,7 @@ public class Mcrypt {
 	 * @return 返回请求算法的名称
 	 */
 	public String getAlgo() {
-		return algo;
+		return settings.algo;
 	}
 
 	/**
@@ -262,8 +363,9 @@ public class Mcrypt {
 	 * @param algo
 	 *        请求算法的名称
 	 */
-	public void setAlgo(final String algo) {
-		this.algo = algo;
+	public synchronized void setAlgo(final String algo) {
+		checkMutable();
+		settings = settings.withAlgo(algo);
 	}
 
 	/**
@@ -272,7 +374,7 @@ public class Mcrypt {
 	 * @return 加密密钥
 	 */
 	public String getSalt() {
-		return salt;
+		return settings.salt;
 	}
 
 	/**
@@ -281,8 +383,9 @@ public class Mcrypt {
 	 * @param salt
 	 *        加密密钥
 	 */
-	public void setSalt(final String salt) {
-		this.salt = salt;
+	public synchronized void setSalt(final String salt) {
+		checkMutable();
+		settings = settings.withSalt(salt);
 	}
 
 	/**
@@ -291,7 +394,7 @@ public class Mcrypt {
 	 * @return 字符串编码
 	 */
 	public String getCharacterEncoding() {
-		return characterEncoding;
+		return settings.characterEncoding;
 	}
 
 	/**
@@ -300,8 +403,9 @@ public class Mcrypt {
 	 * @param characterEncoding
 	 *        字符串编码
 	 */
-	public void setCharacterEncoding(final String characterEncoding) {
-		this.characterEncoding = characterEncoding;
+	public synchronized void setCharacterEncoding(final String characterEncoding) {
+		checkMutable();
+		settings = settings.withCharacterEncoding(characterEncoding);
 	}
 
 	/**
@@ -310,7 +414,7 @@ public class Mcrypt {
 	 * @return 信息摘要对象的提供者
 	 */
 	public Provider getProvider() {
-		return provider;
+		return settings.provider;
 	}
 
 	/**
@@ -319,8 +423,9 @@ public class Mcrypt {
 	 * @param provider
 	 *        信息摘要对象的提供者
 	 */
-	public void setProvider(final Provider provider) {
-		this.provider = provider;
+	public synchronized void setProvider(final Provider provider) {
+		checkMutable();
+		settings = settings.withProvider(provider);
 	}
 
 	/**
@@ -329,7 +434,7 @@ public class Mcrypt {
 	 * @return 重复加密次数
 	 */
 	public int getCount() {
-		return count;
+		return settings.count;
 	}
 
 	/**
@@ -338,12 +443,326 @@ public class Mcrypt {
 	 * @param count
 	 *        重复加密次数
 	 */
-	public void setCount(int count) {
-		if (count < 1) {
-			throw new IllegalArgumentException("Count could not less than 1");
+	public synchronized void setCount(int count) {
+		checkMutable();
+		settings = settings.withCount(count);
+	}
+
+	/**
+	 * 返回重复加密时，每一轮输入的构造方式
+	 * 
+	 * @return 每一轮输入的构造方式
+	 */
+	public ChainMode getChainMode() {
+		return settings.chainMode;
+	}
+
+	/**
+	 * 设置重复加密时，每一轮输入的构造方式；默认为 {@link ChainMode#HEX}，与早期版本的结果一致
+	 * 
+	 * @param chainMode
+	 *        每一轮输入的构造方式
+	 */
+	public synchronized void setChainMode(final ChainMode chainMode) {
+		checkMutable();
+		settings = settings.withChainMode(chainMode);
+	}
+
+	/**
+	 * 返回加密密钥的位置
+	 * 
+	 * @return 加密密钥的位置
+	 */
+	public SaltPosition getSaltPosition() {
+		return settings.saltPosition;
+	}
+
+	/**
+	 * 设置加密密钥的位置；默认为 {@link SaltPosition#SUFFIX}，与早期版本的结果一致
+	 * 
+	 * @param saltPosition
+	 *        加密密钥的位置
+	 */
+	public synchronized void setSaltPosition(final SaltPosition saltPosition) {
+		checkMutable();
+		settings = settings.withSaltPosition(saltPosition);
+	}
+
+	/**
+	 * 返回对象转换为摘要输入的方式
+	 * 
+	 * @return 对象转换为摘要输入的方式
+	 */
+	public ObjectFormat getObjectFormat() {
+		return settings.objectFormat;
+	}
+
+	/**
+	 * 设置对象转换为摘要输入的方式；默认为 {@link ObjectFormat#TO_STRING}，与早期版本的结果一致
+	 * 
+	 * @param objectFormat
+	 *        对象转换为摘要输入的方式
+	 */
+	public synchronized void setObjectFormat(final ObjectFormat objectFormat) {
+		checkMutable();
+		settings = settings.withObjectFormat(objectFormat);
+	}
+
+	/**
+	 * 返回加密结果的输出编码
+	 * 
+	 * @return 加密结果的输出编码
+	 */
+	public OutputEncoding getOutputEncoding() {
+		return settings.outputEncoding;
+	}
+
+	/**
+	 * 设置加密结果的输出编码；默认为 {@link OutputEncoding#HEX}，与早期版本的结果一致
+	 * 
+	 * @param outputEncoding
+	 *        加密结果的输出编码
+	 */
+	public synchronized void setOutputEncoding(final OutputEncoding outputEncoding) {
+		checkMutable();
+		settings = settings.withOutputEncoding(outputEncoding);
+	}
+
+	/**
+	 * 返回文件分段映射时每段的大小
+	 * 
+	 * @return 文件分段映射时每段的大小
+	 */
+	public int getMapWindowSize() {
+		return mapWindowSize;
+	}
+
+	/**
+	 * 设置文件分段映射时每段的大小
+	 * 
+	 * @param mapWindowSize
+	 *        文件分段映射时每段的大小
+	 */
+	public void setMapWindowSize(final int mapWindowSize) {
+		checkMutable();
+
+		if (mapWindowSize < 1) {
+			throw new IllegalArgumentException("Map window size could not less than 1");
+		}
+
+		this.mapWindowSize = mapWindowSize;
+	}
+
+	/**
+	 * 返回文件映射到内存的阈值
+	 * 
+	 * @return 文件映射到内存的阈值
+	 */
+	public long getMapThreshold() {
+		return mapThreshold;
+	}
+
+	/**
+	 * 设置文件映射到内存的阈值，小于该值的文件按分块读取
+	 * 
+	 * @param mapThreshold
+	 *        文件映射到内存的阈值
+	 */
+	public void setMapThreshold(final long mapThreshold) {
+		checkMutable();
+
+		if (mapThreshold < 0) {
+			throw new IllegalArgumentException("Map threshold could not less than 0");
+		}
+
+		this.mapThreshold = mapThreshold;
+	}
+
+	/**
+	 * 返回批量加密时每批的对象数
+	 * 
+	 * @return 批量加密时每批的对象数
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * 设置批量加密时每批的对象数
+	 * 
+	 * @param batchSize
+	 *        批量加密时每批的对象数
+	 */
+	public void setBatchSize(final int batchSize) {
+		checkMutable();
+
+		if (batchSize < 1) {
+			throw new IllegalArgumentException("Batch size could not less than 1");
+		}
+
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * 返回批量加密的并行度
+	 * 
+	 * @return 批量加密的并行度，0 表示由线程池决定
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * 设置批量加密的并行度；未设置 ForkJoinPool 时，按该并行度创建专用线程池
+	 * 
+	 * @param parallelism
+	 *        批量加密的并行度，0 表示由线程池决定
+	 */
+	public synchronized void setParallelism(final int parallelism) {
+		checkMutable();
+
+		if (parallelism < 0) {
+			throw new IllegalArgumentException("Parallelism could not less than 0");
+		}
+
+		if (this.parallelism != parallelism && ownPool != null) {
+			ownPool.shutdown();
+			ownPool = null;
+		}
+
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * 返回批量加密使用的线程池
+	 * 
+	 * @return 批量加密使用的线程池，未设置时为 null
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	/**
+	 * 设置批量加密使用的线程池
+	 * 
+	 * @param forkJoinPool
+	 *        批量加密使用的线程池，为 null 时使用公共池或按并行度创建的专用池
+	 */
+	public void setForkJoinPool(final ForkJoinPool forkJoinPool) {
+		checkMutable();
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * 返回加密结果缓存
+	 * 
+	 * @return 加密结果缓存，未启用时为 null
+	 */
+	public EncodeCache getCache() {
+		return cache;
+	}
+
+	/**
+	 * 设置加密结果缓存，用于反复加密相同输入的场景
+	 * 
+	 * @param cache
+	 *        加密结果缓存，为 null 时不缓存
+	 */
+	public void setCache(final EncodeCache cache) {
+		checkMutable();
+		this.cache = cache;
+	}
+
+	/**
+	 * 返回异步加密使用的线程池
+	 * 
+	 * @return 异步加密使用的线程池，未设置时为 null
+	 */
+	public Executor getAsyncExecutor() {
+		return asyncExecutor;
+	}
+
+	/**
+	 * 设置异步加密使用的线程池
+	 * 
+	 * @param asyncExecutor
+	 *        异步加密使用的线程池，为 null 时在支持虚拟线程的 JDK 上每个任务使用一个虚拟线程，否则使用 ForkJoinPool 公共池
+	 */
+	public void setAsyncExecutor(final Executor asyncExecutor) {
+		checkMutable();
+		this.asyncExecutor = asyncExecutor;
+	}
+
+	/**
+	 * 返回异步加密时最多同时等待和执行的任务数
+	 * 
+	 * @return 最多同时等待和执行的任务数，0 表示不限制
+	 */
+	public int getMaxPendingAsync() {
+		return maxPendingAsync;
+	}
+
+	/**
+	 * 设置异步加密时最多同时等待和执行的任务数；达到上限后新的任务立即以 RejectedExecutionException 失败，
+	 * 调用方可据此降低提交速度
+	 * 
+	 * @param maxPendingAsync
+	 *        最多同时等待和执行的任务数，0 表示不限制
+	 */
+	public void setMaxPendingAsync(final int maxPendingAsync) {
+		checkMutable();
+
+		if (maxPendingAsync < 0) {
+			throw new IllegalArgumentException("Max pending async could not less than 0");
 		}
 
-		this.count = count;
+		this.maxPendingAsync = maxPendingAsync;
+	}
+
+	/**
+	 * 返回异步加密时正在等待和执行的任务数
+	 * 
+	 * @return 正在等待和执行的任务数
+	 */
+	public int getPendingAsyncCount() {
+		return pendingAsync.get();
+	}
+
+	/**
+	 * 返回信息摘要引擎，可用于查看摘要对象缓存的大小和命中情况
+	 * 
+	 * @return 信息摘要引擎
+	 */
+	public DigestEngine getDigestEngine() {
+		return settings.digestEngine();
+	}
+
+	/**
+	 * 立即解析算法、提供者和字符集，不可用时抛出异常，而不是在首次加密时才发现
+	 * 
+	 * @return 当前对象
+	 */
+	public Mcrypt resolve() {
+		settings.resolve();
+		return this;
+	}
+
+	/**
+	 * 返回参数相同、不使用加密结果缓存的副本；副本的加密结果与当前实例相同，用于预热
+	 * 
+	 * @return 不使用缓存的副本
+	 */
+	Mcrypt uncached() {
+		return new Mcrypt(settings, true);
+	}
+
+	/**
+	 * 返回是否为不可变实例
+	 * 
+	 * @return 由 {@link #builder(String)} 构建的实例返回 true
+	 */
+	public boolean isImmutable() {
+		return immutable;
 	}
 
 	/**
@@ -358,95 +777,1251 @@ public class Mcrypt {
 			throw new IllegalArgumentException("String could not be null");
 		}
 
-		if (algo == null || algo.length() == 0) {
-			throw new RuntimeException("Algo could not be null");
-		}
+		final Settings settings = this.settings;
+		return encode(settings, settings.iterationEngine(), object);
+	}
 
-		try {
-			MessageDigest messageDigest = provider == null ? MessageDigest.getInstance(algo)
-					: MessageDigest.getInstance(algo, provider);
-
-			if (object instanceof char[]) {
-				return encode(new String((char[]) object), messageDigest);
-			} else if (object instanceof byte[]) {
-				return encode(new String((byte[]) object, characterEncoding), messageDigest);
-			} else {
-				return encode(object.toString(), messageDigest);
-			}
-		} catch (final NoSuchAlgorithmException e) {
-			logger.error(e.getMessage());
-			throw new SecurityException(e);
-		} catch (UnsupportedEncodingException e) {
-			logger.error(e.getMessage());
+	/**
+	 * 使用指定的加密密钥加密对象，不改变实例的加密密钥
+	 * 
+	 * @param object
+	 *        需要加密的对象
+	 * @param salt
+	 *        本次使用的加密密钥，为空时不加密钥
+	 * @return 加密后的字符串
+	 */
+	public String encode(final Object object, final String salt) {
+		if (object == null) {
+			throw new IllegalArgumentException("String could not be null");
 		}
 
-		return null;
+		final Settings settings = this.settings;
+		return encode(settings, settings.iterationEngine(salt), object);
 	}
 
 	/**
-	 * 字符串解密
-	 * 该方法需要提供信息摘要算法支持双向解密才可用
+	 * 字节数组加密
 	 * 
-	 * @param cs
-	 *        要被解密的 char 值序列
-	 * @return 解密后的字符串
+	 * 直接以调用方的字节更新摘要，不经过字符串解码和编码，可用于任意二进制数据；加密密钥的字节只编码一次
+	 * 
+	 * @param bytes
+	 *        需要加密的字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @return 加密后的字符串
 	 */
-	public String decode(final CharSequence cs) {
-		if (algo == null || algo.length() == 0) {
-			throw new RuntimeException("Algo could not be null");
+	public String encode(final byte[] bytes, final int offset, final int length) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Bytes could not be null");
 		}
 
-		throw new UnsupportedOperationException("Algo '" + algo + "' unsupported decode");
+		if (offset < 0 || length < 0 || offset > bytes.length - length) {
+			throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length +
+					" out of bounds for length " + bytes.length);
+		}
+
+		final Settings settings = this.settings;
+		final long start = Metrics.start();
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final IterationEngine iteration = settings.iterationEngine();
+			final MessageDigest round = iteration.begin(messageDigest);
+
+			round.update(bytes, offset, length);
+
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			return settings.outputEncoding.encode(digest, 0, finish(settings, iteration,
+					messageDigest, round, digest, start, length));
+		} finally {
+			engine.release(messageDigest);
+		}
 	}
 
 	/**
-	 * 字符串加密
+	 * 缓冲区加密
 	 * 
-	 * @param str
-	 *        需要加密的字符串
-	 * @param messageDigest
-	 *        实现指定摘要算法的 MessageDigest 对象
+	 * 读取 buffer 中 position 到 limit 之间的字节，支持堆内、直接和内存映射缓冲区；
+	 * 返回后 position 等于 limit，语义与 {@link #encode(byte[], int, int)} 相同
+	 * 
+	 * @param buffer
+	 *        需要加密的缓冲区
 	 * @return 加密后的字符串
 	 */
-	private String encode(String str, final MessageDigest messageDigest) {
-		if (StringUtils.isEmpty(salt) == false) {
-			str += salt;
+	public String encode(final ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Buffer could not be null");
 		}
 
+		final Settings settings = this.settings;
+		final long start = Metrics.start();
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
 		try {
-			if (StringUtils.isEmpty(this.characterEncoding)) {
-				messageDigest.update(str.getBytes());
-			} else {
-				messageDigest.update(str.getBytes(this.characterEncoding));
-			}
+			final IterationEngine iteration = settings.iterationEngine();
+			final MessageDigest round = iteration.begin(messageDigest);
 
-			final byte[] digest = messageDigest.digest();
-			String result = getFormattedText(digest);
+			final int remaining = buffer.remaining();
 
-			logger.debug("Mcrypt encode string <{}> by algo <{}>, salt <{}>", algo, salt);
-			while(--count > 0) {
-				result = encode(result, messageDigest);
-			}
+			round.update(buffer);
 
-			return result;
-		} catch (UnsupportedEncodingException e) {
-			throw new RuntimeException(e);
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			return settings.outputEncoding.encode(digest, 0, finish(settings, iteration,
+					messageDigest, round, digest, start, remaining));
+		} finally {
+			engine.release(messageDigest);
 		}
 	}
 
 	/**
-	 * @param bytes
-	 * @return formatted string
+	 * 缓冲区加密，将原始摘要字节写入 dst
+	 * 
+	 * 读取 src 中 position 到 limit 之间的字节，支持堆内、直接和内存映射缓冲区；返回后 src 的 position 等于 limit，
+	 * dst 的 position 前移写入的字节数。dst 空间不足时抛出 BufferOverflowException，两个缓冲区均不改变。
+	 * 摘要对象、摘要缓冲区均为复用的对象，稳定运行时不在堆上分配内存
+	 * 
+	 * @param src
+	 *        需要加密的缓冲区
+	 * @param dst
+	 *        摘要写入的缓冲区
+	 * @return 写入的字节数
+	 */
+	public int digestInto(final ByteBuffer src, final ByteBuffer dst) {
+		return into(src, dst, false);
+	}
+
+	/**
+	 * 缓冲区加密，将按 {@link #getOutputEncoding()} 编码的结果以 ASCII 字节写入 dst
+	 * 
+	 * 缓冲区的处理与 {@link #digestInto(ByteBuffer, ByteBuffer)} 相同
+	 * 
+	 * @param src
+	 *        需要加密的缓冲区
+	 * @param dst
+	 *        结果写入的缓冲区
+	 * @return 写入的字节数
 	 */
-	private static String getFormattedText(byte[] bytes) {
-		final StringBuilder buffer = new StringBuilder(bytes.length * 2);
+	public int encodeInto(final ByteBuffer src, final ByteBuffer dst) {
+		return into(src, dst, true);
+	}
+
+	private int into(final ByteBuffer src, final ByteBuffer dst, final boolean encode) {
+		if (src == null) {
+			throw new IllegalArgumentException("Buffer could not be null");
+		}
+
+		if (dst == null) {
+			throw new IllegalArgumentException("Dst could not be null");
+		}
+
+		if (dst.isReadOnly()) {
+			throw new ReadOnlyBufferException();
+		}
+
+		final Settings settings = this.settings;
+		final long start = Metrics.start();
+		final DigestEngine engine = settings.digestEngine();
+		final int digestLength = engine.getDigestLength();
+
+		if (dst.remaining() < (encode ? settings.outputEncoding.encodedLength(digestLength) :
+				digestLength)) {
+			throw new BufferOverflowException();
+		}
+
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final IterationEngine iteration = settings.iterationEngine();
+			final MessageDigest round = iteration.begin(messageDigest);
+			final int remaining = src.remaining();
+
+			round.update(src);
+
+			final Scratch scratch = Scratch.get();
+			final byte[] digest = scratch.digest(digestLength);
+			final int length = finish(settings, iteration, messageDigest, round, digest, start,
+					remaining);
+
+			if (encode == false) {
+				dst.put(digest, 0, length);
+				return length;
+			}
+
+			final byte[] encoded = scratch.hex(settings.outputEncoding.encodedLength(length));
+			final int encodedLength = settings.outputEncoding.encodeTo(digest, 0, length, encoded,
+					0);
+
+			dst.put(encoded, 0, encodedLength);
+			return encodedLength;
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 批量加密，结果与输入顺序一致
+	 * 
+	 * 输入按 {@link #getBatchSize()} 分批，由 {@link #getForkJoinPool()} 并行处理，每个工作线程每批只使用一个摘要对象；
+	 * 未设置 ForkJoinPool 时，设置了并行度则使用按该并行度创建的专用池，否则使用公共池
+	 * 
+	 * @param objects
+	 *        需要加密的对象
+	 * @return 加密后的字符串
+	 */
+	public List<String> encodeAll(final List<?> objects) {
+		if (objects == null) {
+			throw new IllegalArgumentException("Objects could not be null");
+		}
+
+		return Arrays.asList(encodeAll(objects.toArray()));
+	}
+
+	/**
+	 * 批量加密，结果与输入顺序一致
+	 * 
+	 * @see #encodeAll(List)
+	 * @param objects
+	 *        需要加密的对象
+	 * @return 加密后的字符串
+	 */
+	public String[] encodeAll(final Object[] objects) {
+		if (objects == null) {
+			throw new IllegalArgumentException("Objects could not be null");
+		}
+
+		final int batchSize = this.batchSize;
+		final String[] result = new String[objects.length];
+		final BatchEncodeTask task = new BatchEncodeTask(this, settings, objects, result, 0,
+				objects.length, batchSize);
+
+		if (objects.length <= batchSize) {
+			task.encode();
+		} else {
+			getBatchPool().invoke(task);
+		}
+
+		return result;
+	}
+
+	/**
+	 * 按参数快照加密对象；先查缓存，未命中时才从引擎取出摘要对象
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param iteration
+	 *        重复加密引擎
+	 * @param object
+	 *        需要加密的对象
+	 * @return 加密后的字符串
+	 */
+	private String encode(final Settings settings, final IterationEngine iteration,
+			final Object object) {
+		final EncodeCache cache = this.cache;
+		final boolean cacheable = cache != null && EncodeCache.isCacheable(object);
+
+		if (cacheable) {
+			final String cached = cache.get(settings, iteration.getSalt(), object);
+
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+		final String result;
+
+		try {
+			result = encodeUncached(settings, iteration, object, messageDigest);
+		} finally {
+			engine.release(messageDigest);
+		}
+
+		if (cacheable) {
+			cache.put(settings, iteration.getSalt(), object, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * 使用指定的摘要对象加密，缓存命中时不使用摘要对象
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param iteration
+	 *        重复加密引擎
+	 * @param object
+	 *        需要加密的对象
+	 * @param messageDigest
+	 *        已重置的 MessageDigest 对象
+	 * @return 加密后的字符串
+	 */
+	String encode(final Settings settings, final IterationEngine iteration, final Object object,
+			final MessageDigest messageDigest) {
+		if (object == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		final EncodeCache cache = this.cache;
+		final boolean cacheable = cache != null && EncodeCache.isCacheable(object);
+
+		if (cacheable) {
+			final String cached = cache.get(settings, iteration.getSalt(), object);
+
+			if (cached != null) {
+				return cached;
+			}
+		}
+
+		final String result = encodeUncached(settings, iteration, object, messageDigest);
+
+		if (cacheable) {
+			cache.put(settings, iteration.getSalt(), object, result);
+		}
+
+		return result;
+	}
+
+	/**
+	 * 使用指定的摘要对象加密，不读写缓存
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param iteration
+	 *        重复加密引擎
+	 * @param object
+	 *        需要加密的对象
+	 * @param messageDigest
+	 *        已重置的 MessageDigest 对象
+	 * @return 加密后的字符串
+	 */
+	private static String encodeUncached(final Settings settings, final IterationEngine iteration,
+			final Object object, final MessageDigest messageDigest) {
+		final byte[] digest = Scratch.get().digest(settings.digestEngine().getDigestLength());
+		final int length = digest(settings, iteration, object, messageDigest, digest);
+
+		return settings.outputEncoding.encode(digest, 0, length);
+	}
+
+	/**
+	 * 异步对象加密，在 {@link #getAsyncExecutor()} 中执行
+	 * 
+	 * 参数在调用时读取，之后修改实例的参数不影响已提交的任务。同时等待和执行的任务数达到 {@link #getMaxPendingAsync()}
+	 * 或线程池拒绝任务时，返回的 CompletableFuture 以 RejectedExecutionException 失败，调用线程不会阻塞
+	 * 
+	 * @param object
+	 *        需要加密的对象
+	 * @return 加密结果
+	 */
+	public CompletableFuture<String> encodeAsync(final Object object) {
+		final Executor executor = asyncExecutor;
+		return encodeAsync(object, executor == null ? AsyncExecutors.defaultExecutor() : executor);
+	}
+
+	/**
+	 * 异步对象加密，在指定的线程池中执行
+	 * 
+	 * @see #encodeAsync(Object)
+	 * @param object
+	 *        需要加密的对象
+	 * @param executor
+	 *        执行加密的线程池
+	 * @return 加密结果
+	 */
+	public CompletableFuture<String> encodeAsync(final Object object, final Executor executor) {
+		if (object == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		if (executor == null) {
+			throw new IllegalArgumentException("Executor could not be null");
+		}
+
+		final CompletableFuture<String> future = new CompletableFuture<String>();
+		final int maxPending = maxPendingAsync;
+
+		if (pendingAsync.incrementAndGet() > maxPending && maxPending > 0) {
+			pendingAsync.decrementAndGet();
+			future.completeExceptionally(new RejectedExecutionException(
+					"Too many pending async encode, max " + maxPending));
+			return future;
+		}
+
+		final Settings settings = this.settings;
+
+		try {
+			executor.execute(new Runnable() {
+
+				@Override
+				public void run() {
+					try {
+						future.complete(encode(settings, settings.iterationEngine(), object));
+					} catch (final Throwable e) {
+						future.completeExceptionally(e);
+					} finally {
+						pendingAsync.decrementAndGet();
+					}
+				}
+
+			});
+		} catch (final RejectedExecutionException e) {
+			pendingAsync.decrementAndGet();
+			future.completeExceptionally(e);
+		}
+
+		return future;
+	}
+
+	/**
+	 * 校验对象的加密结果是否等于 stored
+	 * 
+	 * 预期结果按 {@link #getOutputEncoding()} 解码到线程内复用的字节缓冲区，与摘要字节逐字节比较，
+	 * 比较耗时与结果在何处不同无关；不创建字符串，也不经过 {@link #getCache()}
+	 * 
+	 * @param raw
+	 *        需要校验的对象
+	 * @param stored
+	 *        已保存的加密结果，十六进制时大小写均可
+	 * @return 是否一致；stored 长度不符或包含非法字符时返回 false
+	 */
+	public boolean matches(final Object raw, final CharSequence stored) {
+		if (raw == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		final Settings settings = this.settings;
+		return matches(settings, settings.iterationEngine(), raw, stored);
+	}
+
+	/**
+	 * 使用指定的加密密钥校验对象的加密结果是否等于 stored，不改变实例的加密密钥
+	 * 
+	 * @param raw
+	 *        需要校验的对象
+	 * @param salt
+	 *        本次使用的加密密钥，为空时不加密钥
+	 * @param stored
+	 *        已保存的加密结果，十六进制时大小写均可
+	 * @return 是否一致；stored 长度不符或包含非法字符时返回 false
+	 * @see #matches(Object, CharSequence)
+	 */
+	public boolean matches(final Object raw, final String salt, final CharSequence stored) {
+		if (raw == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		final Settings settings = this.settings;
+		return matches(settings, settings.iterationEngine(salt), raw, stored);
+	}
+
+	private static boolean matches(final Settings settings, final IterationEngine iteration,
+			final Object raw, final CharSequence stored) {
+		if (stored == null) {
+			throw new IllegalArgumentException("Stored could not be null");
+		}
+
+		final DigestEngine engine = settings.digestEngine();
+		final int digestLength = engine.getDigestLength();
+		final Scratch scratch = Scratch.get();
+		final byte[] expected = scratch.expected(digestLength);
+
+		if (settings.outputEncoding.tryDecodeTo(stored, expected, digestLength) == false) {
+			return false;
+		}
+
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final byte[] digest = scratch.digest(digestLength);
+			final int length = digest(settings, iteration, raw, messageDigest, digest);
+
+			return isEqual(digest, expected, length);
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 比较两个缓冲区的前 length 个字节，耗时只与 length 有关
+	 * 
+	 * @param a
+	 *        缓冲区
+	 * @param b
+	 *        缓冲区
+	 * @param length
+	 *        比较的字节数
+	 * @return 是否一致
+	 */
+	private static boolean isEqual(final byte[] a, final byte[] b, final int length) {
+		int diff = 0;
+
+		for (int i = 0; i < length; i++) {
+			diff |= a[i] ^ b[i];
+		}
+
+		return diff == 0;
+	}
+
+	/**
+	 * 对象加密，返回原始摘要字节，不经过输出编码
+	 * 
+	 * @param object
+	 *        需要加密的对象
+	 * @return 摘要字节
+	 */
+	public byte[] digest(final Object object) {
+		final byte[] dest = new byte[getDigestEngine().getDigestLength()];
+
+		digestTo(object, dest, 0);
+
+		return dest;
+	}
+
+	/**
+	 * 对象加密，将原始摘要字节写入调用方提供的字节数组，不经过输出编码
+	 * 
+	 * @param object
+	 *        需要加密的对象
+	 * @param dest
+	 *        目标字节数组
+	 * @param offset
+	 *        写入的起始位置
+	 * @return 写入的字节数
+	 */
+	public int digestTo(final Object object, final byte[] dest, final int offset) {
+		if (object == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		if (dest == null) {
+			throw new IllegalArgumentException("Dest could not be null");
+		}
+
+		final Settings settings = this.settings;
+		final DigestEngine engine = settings.digestEngine();
+
+		if (offset < 0 || dest.length - offset < engine.getDigestLength()) {
+			throw new IllegalArgumentException("Destination buffer too small, required " + engine
+					.getDigestLength() + " from offset " + offset);
+		}
+
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			final int length = digest(settings, settings.iterationEngine(), object, messageDigest,
+					digest);
+
+			System.arraycopy(digest, 0, dest, offset, length);
+
+			return length;
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 对象加密，将按 {@link #getOutputEncoding()} 编码的结果写入调用方提供的字符数组
+	 * 
+	 * @param object
+	 *        需要加密的对象
+	 * @param dest
+	 *        目标字符数组
+	 * @param offset
+	 *        写入的起始位置
+	 * @return 写入的字符数
+	 */
+	public int encodeTo(final Object object, final char[] dest, final int offset) {
+		if (object == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		final Settings settings = this.settings;
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			final int length = digest(settings, settings.iterationEngine(), object, messageDigest,
+					digest);
+
+			return settings.outputEncoding.encodeTo(digest, 0, length, dest, offset);
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 对象加密，将按 {@link #getOutputEncoding()} 编码的结果以 ASCII 字节写入调用方提供的字节数组
+	 * 
+	 * @param object
+	 *        需要加密的对象
+	 * @param dest
+	 *        目标字节数组
+	 * @param offset
+	 *        写入的起始位置
+	 * @return 写入的字节数
+	 */
+	public int encodeTo(final Object object, final byte[] dest, final int offset) {
+		if (object == null) {
+			throw new IllegalArgumentException("String could not be null");
+		}
+
+		final Settings settings = this.settings;
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			final int length = digest(settings, settings.iterationEngine(), object, messageDigest,
+					digest);
+
+			return settings.outputEncoding.encodeTo(digest, 0, length, dest, offset);
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 输入流加密
+	 * 
+	 * 按固定大小分块读取，内存占用与输入长度无关；流中的全部字节加上加密密钥的字节作为第一轮输入，
+	 * 其后各轮与 {@link #encode(Object)} 相同。字符集与十六进制兼容时，
+	 * 对字符串编码后的字节流加密与直接对该字符串加密结果相同。方法不会关闭输入流
+	 * 
+	 * @param inputStream
+	 *        需要加密的输入流
+	 * @return 加密后的字符串
+	 * @throws IOException
+	 *         读取输入流出错
+	 */
+	public String encode(final InputStream inputStream) throws IOException {
+		if (inputStream == null) {
+			throw new IllegalArgumentException("InputStream could not be null");
+		}
+
+		final Settings settings = this.settings;
+		final long start = Metrics.start();
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final IterationEngine iteration = settings.iterationEngine();
+			final MessageDigest round = iteration.begin(messageDigest);
+			final Scratch scratch = Scratch.get();
+			final byte[] chunk = scratch.chunk();
+			long total = 0;
+			int length;
+
+			while((length = inputStream.read(chunk, 0, chunk.length)) != -1) {
+				round.update(chunk, 0, length);
+				total += length;
+			}
+
+			final byte[] digest = scratch.digest(engine.getDigestLength());
+			return settings.outputEncoding.encode(digest, 0, finish(settings, iteration,
+					messageDigest, round, digest, start, total));
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 通道加密
+	 * 
+	 * 通过线程内复用的直接缓冲区分块读取，语义与 {@link #encode(InputStream)} 相同；
+	 * 通道须为阻塞模式，方法不会关闭通道
+	 * 
+	 * @param channel
+	 *        需要加密的通道
+	 * @return 加密后的字符串
+	 * @throws IOException
+	 *         读取通道出错
+	 */
+	public String encode(final ReadableByteChannel channel) throws IOException {
+		if (channel == null) {
+			throw new IllegalArgumentException("Channel could not be null");
+		}
+
+		final Settings settings = this.settings;
+		final long start = Metrics.start();
+		final DigestEngine engine = settings.digestEngine();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			final IterationEngine iteration = settings.iterationEngine();
+			final MessageDigest round = iteration.begin(messageDigest);
+
+			final long total = update(round, channel);
+
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			return settings.outputEncoding.encode(digest, 0, finish(settings, iteration,
+					messageDigest, round, digest, start, total));
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+	/**
+	 * 文件加密
+	 * 
+	 * 不小于 {@link #getMapThreshold()} 的文件按 {@link #getMapWindowSize()} 分段映射到内存，
+	 * 直接以映射区域更新摘要；较小的文件按 {@link #encode(ReadableByteChannel)} 分块读取。
+	 * 语义与 {@link #encode(InputStream)} 相同
+	 * 
+	 * @param path
+	 *        需要加密的文件
+	 * @return 加密后的字符串
+	 * @throws IOException
+	 *         读取文件出错
+	 */
+	public String encodeFile(final Path path) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Path could not be null");
+		}
+
+		final Settings settings = this.settings;
+		final long start = Metrics.start();
+		final DigestEngine engine = settings.digestEngine();
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+		final long mapThreshold = this.mapThreshold;
+		final int mapWindowSize = this.mapWindowSize;
+
+		try {
+			final MessageDigest messageDigest = engine.acquire();
+
+			try {
+				final IterationEngine iteration = settings.iterationEngine();
+				final MessageDigest round = iteration.begin(messageDigest);
+				final long size = channel.size();
+
+				if (size < mapThreshold) {
+					update(round, channel);
+				} else {
+					for (long position = 0; position < size; position += mapWindowSize) {
+						final long length = Math.min(mapWindowSize, size - position);
+
+						round.update(channel.map(FileChannel.MapMode.READ_ONLY, position, length));
+					}
+				}
+
+				final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+				return settings.outputEncoding.encode(digest, 0, finish(settings, iteration,
+						messageDigest, round, digest, start, size));
+			} finally {
+				engine.release(messageDigest);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * 字符串解密
+	 * 该方法需要提供信息摘要算法支持双向解密才可用
+	 * 
+	 * @param cs
+	 *        要被解密的 char 值序列
+	 * @return 解密后的字符串
+	 */
+	public String decode(final CharSequence cs) {
+		final String algo = settings.algo;
+
+		if (algo == null || algo.length() == 0) {
+			throw new RuntimeException("Algo could not be null");
+		}
+
+		throw new UnsupportedOperationException("Algo '" + algo + "' unsupported decode");
+	}
+
+	/**
+	 * 对象摘要
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param iteration
+	 *        重复加密引擎
+	 * @param object
+	 *        需要加密的对象
+	 * @param messageDigest
+	 *        实现指定摘要算法的 MessageDigest 对象
+	 * @param dest
+	 *        摘要写入的缓冲区
+	 * @return 摘要长度
+	 */
+	private static int digest(final Settings settings, final IterationEngine iteration,
+			final Object object, final MessageDigest messageDigest, final byte[] dest) {
+		final long start = Metrics.start();
+
+		if (settings.objectFormat == ObjectFormat.CANONICAL) {
+			final MessageDigest round = iteration.begin(messageDigest);
+			final long bytes = CanonicalEncoder.encode(round, object);
+
+			return finish(settings, iteration, messageDigest, round, dest, start, bytes);
+		} else if (object instanceof char[]) {
+			return digest(settings, iteration, CharBuffer.wrap((char[]) object), messageDigest, dest,
+					start);
+		} else if (object instanceof CharSequence) {
+			return digest(settings, iteration, (CharSequence) object, messageDigest, dest, start);
+		} else if (object instanceof byte[]) {
+			final byte[] bytes = (byte[]) object;
+
+			if (iteration.isByteCompatible()) {
+				final MessageDigest round = iteration.begin(messageDigest);
+
+				round.update(bytes);
+				return finish(settings, iteration, messageDigest, round, dest, start, bytes.length);
+			}
+
+			return digest(settings, iteration, new String(bytes, iteration.getCharset()),
+					messageDigest, dest, start);
+		} else {
+			return digest(settings, iteration, object.toString(), messageDigest, dest,
+					start);
+		}
+	}
+
+	/**
+	 * 字符序列摘要，字符直接编码到线程内复用的缓冲区后写入摘要，不创建中间字符串
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param iteration
+	 *        重复加密引擎
+	 * @param str
+	 *        需要加密的字符序列
+	 * @param messageDigest
+	 *        实现指定摘要算法的 MessageDigest 对象
+	 * @param dest
+	 *        摘要写入的缓冲区
+	 * @param start
+	 *        {@link Metrics#start()} 的返回值
+	 * @return 摘要长度
+	 */
+	private static int digest(final Settings settings, final IterationEngine iteration,
+			final CharSequence str, final MessageDigest messageDigest, final byte[] dest,
+			final long start) {
+		final TextEncoder textEncoder = Scratch.get().textEncoder();
+		final long bytes;
+		final int length;
+
+		if (iteration.isByteCompatible()) {
+			final MessageDigest round = iteration.begin(messageDigest);
+
+			bytes = textEncoder.update(round, str, iteration.getCharset());
+			length = iteration.end(round, dest);
+		} else {
+			bytes = textEncoder.update(messageDigest, iteration.join(str), iteration.getCharset());
+
+			try {
+				length = messageDigest.digest(dest, 0, dest.length);
+			} catch (DigestException e) {
+				throw new SecurityException(e);
+			}
+		}
+
+		logger.debug("Mcrypt encode string by algo <{}>, salt <{}>", settings.algo,
+				iteration.getSalt());
+
+		final int result = iteration.iterate(messageDigest, dest, length, settings.count);
+
+		Metrics.record(settings.digestEngine(), start, bytes, settings.count);
+
+		return result;
+	}
+
+	private ForkJoinPool getBatchPool() {
+		final ForkJoinPool pool = forkJoinPool;
+
+		if (pool != null) {
+			return pool;
+		}
+
+		if (parallelism == 0) {
+			return ForkJoinPool.commonPool();
+		}
+
+		ForkJoinPool own = ownPool;
+		if (own == null) {
+			synchronized (this) {
+				if (ownPool == null) {
+					ownPool = new ForkJoinPool(parallelism);
+				}
+
+				own = ownPool;
+			}
+		}
+
+		return own;
+	}
+
+	/**
+	 * 通过线程内复用的直接缓冲区分块读取通道，并更新摘要
+	 * 
+	 * @param messageDigest
+	 *        实现指定摘要算法的 MessageDigest 对象
+	 * @param channel
+	 *        通道
+	 * @return 读取的字节数
+	 * @throws IOException
+	 *         读取通道出错
+	 */
+	private static long update(final MessageDigest messageDigest,
+			final ReadableByteChannel channel) throws IOException {
+		final ByteBuffer buffer = Scratch.get().directChunk();
+		long total = 0;
+		int length;
+
+		buffer.clear();
+		while((length = channel.read(buffer)) != -1) {
+			buffer.flip();
+			messageDigest.update(buffer);
+			buffer.clear();
+			total += length;
+		}
+
+		return total;
+	}
+
+	/**
+	 * 完成第一轮摘要并执行其余各轮
+	 * 
+	 * @param settings
+	 *        参数快照
+	 * @param iteration
+	 *        重复加密引擎
+	 * @param messageDigest
+	 *        从引擎取出的 MessageDigest 对象
+	 * @param round
+	 *        已写入第一轮输入的 MessageDigest 对象，由 {@link IterationEngine#begin(MessageDigest)} 返回
+	 * @param dest
+	 *        摘要写入的缓冲区
+	 * @param start
+	 *        {@link Metrics#start()} 的返回值
+	 * @param bytes
+	 *        第一轮输入数据的字节数
+	 * @return 摘要长度
+	 */
+	static int finish(final Settings settings, final IterationEngine iteration,
+			final MessageDigest messageDigest, final MessageDigest round, final byte[] dest,
+			final long start, final long bytes) {
+		final int length = iteration.iterate(messageDigest, dest, iteration.end(round, dest),
+				settings.count);
+
+		Metrics.record(settings.digestEngine(), start, bytes, settings.count);
+
+		return length;
+	}
+
+	/**
+	 * 返回当前参数快照
+	 * 
+	 * @return 参数快照
+	 */
+	Settings getSettings() {
+		return settings;
+	}
+
+	private void checkMutable() {
+		if (immutable) {
+			throw new UnsupportedOperationException("Mcrypt built by builder is immutable");
+		}
+	}
+
+	/**
+	 * 不可变 Mcrypt 的构建器
+	 * 
+	 * @author Yong.Teng <webmaster@buession.com>
+	 */
+	public final static class Builder {
+
+		/**
+		 * 请求算法的名称
+		 */
+		private final String algo;
+
+		private Provider provider;
+
+		private String characterEncoding;
+
+		private String salt;
+
+		private int count = 1;
+
+		private ChainMode chainMode = ChainMode.HEX;
+
+		private ObjectFormat objectFormat = ObjectFormat.TO_STRING;
+
+		private OutputEncoding outputEncoding = OutputEncoding.HEX;
+
+		private SaltPosition saltPosition = SaltPosition.SUFFIX;
+
+		private int mapWindowSize = DEFAULT_MAP_WINDOW_SIZE;
+
+		private long mapThreshold = DEFAULT_MAP_THRESHOLD;
+
+		private int batchSize = DEFAULT_BATCH_SIZE;
+
+		private int parallelism;
+
+		private ForkJoinPool forkJoinPool;
+
+		private EncodeCache cache;
+
+		private Executor asyncExecutor;
+
+		private int maxPendingAsync;
+
+		private Builder(final String algo) {
+			this.algo = algo;
+		}
+
+		/**
+		 * 设置信息摘要对象的提供者
+		 * 
+		 * @param provider
+		 *        信息摘要对象的提供者
+		 * @return 构建器
+		 */
+		public Builder provider(final Provider provider) {
+			this.provider = provider;
+			return this;
+		}
+
+		/**
+		 * 设置字符串编码
+		 * 
+		 * @param characterEncoding
+		 *        字符串编码
+		 * @return 构建器
+		 */
+		public Builder characterEncoding(final String characterEncoding) {
+			this.characterEncoding = characterEncoding;
+			return this;
+		}
+
+		/**
+		 * 设置加密密钥
+		 * 
+		 * @param salt
+		 *        加密密钥
+		 * @return 构建器
+		 */
+		public Builder salt(final String salt) {
+			this.salt = salt;
+			return this;
+		}
+
+		/**
+		 * 设置重复加密次数
+		 * 
+		 * @param count
+		 *        重复加密次数
+		 * @return 构建器
+		 */
+		public Builder count(final int count) {
+			if (count < 1) {
+				throw new IllegalArgumentException("Count could not less than 1");
+			}
+
+			this.count = count;
+			return this;
+		}
+
+		/**
+		 * 设置重复加密时，每一轮输入的构造方式
+		 * 
+		 * @param chainMode
+		 *        每一轮输入的构造方式
+		 * @return 构建器
+		 */
+		public Builder chainMode(final ChainMode chainMode) {
+			if (chainMode == null) {
+				throw new IllegalArgumentException("Chain mode could not be null");
+			}
+
+			this.chainMode = chainMode;
+			return this;
+		}
+
+		/**
+		 * 设置加密密钥的位置
+		 * 
+		 * @param saltPosition
+		 *        加密密钥的位置
+		 * @return 构建器
+		 */
+		public Builder saltPosition(final SaltPosition saltPosition) {
+			if (saltPosition == null) {
+				throw new IllegalArgumentException("Salt position could not be null");
+			}
+
+			this.saltPosition = saltPosition;
+			return this;
+		}
+
+		/**
+		 * 设置对象转换为摘要输入的方式
+		 * 
+		 * @param objectFormat
+		 *        对象转换为摘要输入的方式
+		 * @return 构建器
+		 */
+		public Builder objectFormat(final ObjectFormat objectFormat) {
+			if (objectFormat == null) {
+				throw new IllegalArgumentException("Object format could not be null");
+			}
+
+			this.objectFormat = objectFormat;
+			return this;
+		}
+
+		/**
+		 * 设置加密结果的输出编码
+		 * 
+		 * @param outputEncoding
+		 *        加密结果的输出编码
+		 * @return 构建器
+		 */
+		public Builder outputEncoding(final OutputEncoding outputEncoding) {
+			if (outputEncoding == null) {
+				throw new IllegalArgumentException("Output encoding could not be null");
+			}
+
+			this.outputEncoding = outputEncoding;
+			return this;
+		}
+
+		/**
+		 * 设置文件分段映射时每段的大小
+		 * 
+		 * @param mapWindowSize
+		 *        文件分段映射时每段的大小
+		 * @return 构建器
+		 */
+		public Builder mapWindowSize(final int mapWindowSize) {
+			if (mapWindowSize < 1) {
+				throw new IllegalArgumentException("Map window size could not less than 1");
+			}
+
+			this.mapWindowSize = mapWindowSize;
+			return this;
+		}
+
+		/**
+		 * 设置文件映射到内存的阈值
+		 * 
+		 * @param mapThreshold
+		 *        文件映射到内存的阈值
+		 * @return 构建器
+		 */
+		public Builder mapThreshold(final long mapThreshold) {
+			if (mapThreshold < 0) {
+				throw new IllegalArgumentException("Map threshold could not less than 0");
+			}
+
+			this.mapThreshold = mapThreshold;
+			return this;
+		}
+
+		/**
+		 * 设置批量加密时每批的对象数
+		 * 
+		 * @param batchSize
+		 *        批量加密时每批的对象数
+		 * @return 构建器
+		 */
+		public Builder batchSize(final int batchSize) {
+			if (batchSize < 1) {
+				throw new IllegalArgumentException("Batch size could not less than 1");
+			}
+
+			this.batchSize = batchSize;
+			return this;
+		}
+
+		/**
+		 * 设置批量加密的并行度
+		 * 
+		 * @param parallelism
+		 *        批量加密的并行度，0 表示由线程池决定
+		 * @return 构建器
+		 */
+		public Builder parallelism(final int parallelism) {
+			if (parallelism < 0) {
+				throw new IllegalArgumentException("Parallelism could not less than 0");
+			}
+
+			this.parallelism = parallelism;
+			return this;
+		}
+
+		/**
+		 * 设置批量加密使用的线程池
+		 * 
+		 * @param forkJoinPool
+		 *        批量加密使用的线程池
+		 * @return 构建器
+		 */
+		public Builder forkJoinPool(final ForkJoinPool forkJoinPool) {
+			this.forkJoinPool = forkJoinPool;
+			return this;
+		}
+
+		/**
+		 * 设置加密结果缓存
+		 * 
+		 * @param cache
+		 *        加密结果缓存
+		 * @return 构建器
+		 */
+		public Builder cache(final EncodeCache cache) {
+			this.cache = cache;
+			return this;
+		}
+
+		/**
+		 * 设置异步加密使用的线程池
+		 * 
+		 * @param asyncExecutor
+		 *        异步加密使用的线程池
+		 * @return 构建器
+		 */
+		public Builder asyncExecutor(final Executor asyncExecutor) {
+			this.asyncExecutor = asyncExecutor;
+			return this;
+		}
+
+		/**
+		 * 设置异步加密时最多同时等待和执行的任务数
+		 * 
+		 * @param maxPendingAsync
+		 *        最多同时等待和执行的任务数，0 表示不限制
+		 * @return 构建器
+		 */
+		public Builder maxPendingAsync(final int maxPendingAsync) {
+			if (maxPendingAsync < 0) {
+				throw new IllegalArgumentException("Max pending async could not less than 0");
+			}
+
+			this.maxPendingAsync = maxPendingAsync;
+			return this;
+		}
 
-		for (int j = 0; j < bytes.length; j++) {
-			buffer.append(HEX_DIGITS[(bytes[j] >> 4) & 0x0f]);
-			buffer.append(HEX_DIGITS[bytes[j] & 0x0f]);
+		/**
+		 * 构建不可变 Mcrypt，算法或字符集不可用时立即抛出异常
+		 * 
+		 * @return 不可变 Mcrypt
+		 */
+		public Mcrypt build() {
+			return new Mcrypt(this);
 		}
 
-		return buffer.toString();
 	}
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,249 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Mcrypt 注册表
+ * 
+ * 在服务启动时集中注册各处使用的 Mcrypt，注册时立即解析算法、提供者和字符集，
+ * 配置错误在启动阶段即以异常暴露，而不是在第一个请求中才抛出 SecurityException；
+ * {@link #warmUp()} 以有代表性的输入反复加密，使热点代码在对外服务前完成 JIT 编译
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class McryptRegistry {
+
+	/**
+	 * 默认每个 Mcrypt 预热的摘要轮数
+	 */
+	public final static int DEFAULT_WARM_UP_ROUNDS = 20000;
+
+	/**
+	 * 预热使用的字节输入长度
+	 */
+	private final static int WARM_UP_BYTES = 1024;
+
+	/**
+	 * 预热使用的字符串输入
+	 */
+	private final static String WARM_UP_TEXT = "Mcrypt warm up 0123456789 中文";
+
+	private final Map<String, Mcrypt> mcrypts = new LinkedHashMap<String, Mcrypt>();
+
+	private final static Logger logger = LoggerFactory.getLogger(McryptRegistry.class);
+
+	/**
+	 * 注册 Mcrypt，立即解析算法、提供者和字符集
+	 * 
+	 * @param name
+	 *        名称
+	 * @param mcrypt
+	 *        Mcrypt
+	 * @return 当前对象
+	 * @throws SecurityException
+	 *         算法或提供者不可用
+	 */
+	public synchronized McryptRegistry register(final String name, final Mcrypt mcrypt) {
+		if (name == null) {
+			throw new IllegalArgumentException("Name could not be null");
+		}
+
+		if (mcrypt == null) {
+			throw new IllegalArgumentException("Mcrypt could not be null");
+		}
+
+		if (mcrypts.containsKey(name)) {
+			throw new IllegalArgumentException("Mcrypt <" + name + "> already registered");
+		}
+
+		mcrypts.put(name, mcrypt.resolve());
+		logger.debug("Register mcrypt <{}> algo <{}>, provider <{}>", name, mcrypt.getAlgo(), mcrypt
+				.getDigestEngine().getProvider().getName());
+
+		return this;
+	}
+
+	/**
+	 * 构建并注册不可变 Mcrypt
+	 * 
+	 * @param name
+	 *        名称
+	 * @param builder
+	 *        构建器
+	 * @return 当前对象
+	 * @throws SecurityException
+	 *         算法或提供者不可用
+	 */
+	public McryptRegistry register(final String name, final Mcrypt.Builder builder) {
+		if (builder == null) {
+			throw new IllegalArgumentException("Builder could not be null");
+		}
+
+		return register(name, builder.build());
+	}
+
+	/**
+	 * 返回指定名称的 Mcrypt
+	 * 
+	 * @param name
+	 *        名称
+	 * @return Mcrypt
+	 * @throws IllegalArgumentException
+	 *         名称未注册
+	 */
+	public synchronized Mcrypt get(final String name) {
+		final Mcrypt mcrypt = mcrypts.get(name);
+
+		if (mcrypt == null) {
+			throw new IllegalArgumentException("Mcrypt <" + name + "> not registered");
+		}
+
+		return mcrypt;
+	}
+
+	/**
+	 * 返回已注册的名称，按注册顺序
+	 * 
+	 * @return 已注册的名称
+	 */
+	public synchronized List<String> getNames() {
+		return Collections.unmodifiableList(new ArrayList<String>(mcrypts.keySet()));
+	}
+
+	/**
+	 * 以默认轮数预热全部已注册的 Mcrypt
+	 * 
+	 * @return 每个 Mcrypt 的预热耗时（毫秒），按注册顺序
+	 * @see #warmUp(int)
+	 */
+	public Map<String, Long> warmUp() {
+		return warmUp(DEFAULT_WARM_UP_ROUNDS);
+	}
+
+	/**
+	 * 预热全部已注册的 Mcrypt
+	 * 
+	 * 每个 Mcrypt 交替执行字符串加密、字节数组加密、缓冲区加密、encodeTo 和 matches，
+	 * 直到累计摘要轮数达到 rounds；重复加密次数较大的实例调用次数相应减少，预热耗时大致与 rounds 成正比。
+	 * 预热使用参数相同、不使用缓存的副本，并暂停当前线程的统计，不会写入实例的加密结果缓存或 {@link Metrics}
+	 * 
+	 * @param rounds
+	 *        每个 Mcrypt 预热的摘要轮数
+	 * @return 每个 Mcrypt 的预热耗时（毫秒），按注册顺序
+	 */
+	public Map<String, Long> warmUp(final int rounds) {
+		if (rounds < 1) {
+			throw new IllegalArgumentException("Rounds could not less than 1");
+		}
+
+		final Map<String, Mcrypt> mcrypts;
+
+		synchronized (this) {
+			mcrypts = new LinkedHashMap<String, Mcrypt>(this.mcrypts);
+		}
+
+		final Map<String, Long> result = new LinkedHashMap<String, Long>(mcrypts.size());
+		final long begin = System.nanoTime();
+
+		for (Map.Entry<String, Mcrypt> e : mcrypts.entrySet()) {
+			final long start = System.nanoTime();
+
+			warmUp(e.getValue(), Math.max(1, rounds / e.getValue().getCount()));
+
+			final long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+			result.put(e.getKey(), elapsed);
+			logger.info("Warm up mcrypt <{}> in {} ms", e.getKey(), elapsed);
+		}
+
+		logger.info("Warm up {} mcrypt in {} ms", mcrypts.size(), TimeUnit.NANOSECONDS.toMillis(
+				System.nanoTime() - begin));
+
+		return Collections.unmodifiableMap(result);
+	}
+
+	@Override
+	public synchronized String toString() {
+		return "McryptRegistry" + mcrypts.keySet();
+	}
+
+	private static void warmUp(final Mcrypt registered, final int calls) {
+		final Mcrypt mcrypt = registered.uncached();
+
+		Metrics.suspend();
+		try {
+			warmUpCalls(mcrypt, calls);
+		} finally {
+			Metrics.resume();
+		}
+	}
+
+	private static void warmUpCalls(final Mcrypt mcrypt, final int calls) {
+		final byte[] bytes = new byte[WARM_UP_BYTES];
+		final ByteBuffer direct = ByteBuffer.allocateDirect(WARM_UP_BYTES);
+		final char[] dest = new char[mcrypt.getDigestEngine().getDigestLength() << 1];
+
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+
+		final String expected = mcrypt.encode(WARM_UP_TEXT);
+
+		for (int i = 0; i < calls; i++) {
+			switch (i % 5) {
+				case 0:
+					mcrypt.encode(WARM_UP_TEXT);
+					break;
+				case 1:
+					mcrypt.encode(bytes, 0, bytes.length);
+					break;
+				case 2:
+					direct.clear();
+					mcrypt.encode(direct);
+					break;
+				case 3:
+					mcrypt.encodeTo(WARM_UP_TEXT, dest, 0);
+					break;
+				default:
+					mcrypt.matches(WARM_UP_TEXT, expected);
+					break;
+			}
+		}
+	}
+
+}
@@ -0,0 +1,235 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * 加密统计
+ * 
+ * 按算法和提供者记录加密次数、输入字节数、摘要轮数和耗时直方图，启用时同时注册为 JMX MBean，
+ * 名称为 com.buession.mcrypt:type=Metrics,algo=算法,provider=提供者。
+ * 默认关闭，可通过系统属性 mcrypt.metrics=true 或 {@link #setEnabled(boolean)} 启用；
+ * 关闭时每次加密只多读取一次开关，不调用 System.nanoTime()
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Metrics {
+
+	/**
+	 * JMX 域名
+	 */
+	public final static String DOMAIN = "com.buession.mcrypt";
+
+	/**
+	 * 未启用时 {@link #start()} 的返回值
+	 */
+	final static long DISABLED = Long.MIN_VALUE;
+
+	private final static ConcurrentMap<String, AlgorithmMetrics> METRICS = new ConcurrentHashMap<String, AlgorithmMetrics>();
+
+	private static volatile boolean enabled = Boolean.getBoolean("mcrypt.metrics");
+
+	/**
+	 * 当前线程暂停统计的层数，大于 0 时不记录
+	 */
+	private final static ThreadLocal<int[]> SUSPENDED = new ThreadLocal<int[]>() {
+
+		@Override
+		protected int[] initialValue() {
+			return new int[1];
+		}
+
+	};
+
+	private final static Logger logger = LoggerFactory.getLogger(Metrics.class);
+
+	private Metrics() {
+	}
+
+	/**
+	 * 返回是否启用统计
+	 * 
+	 * @return 是否启用统计
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * 启用或关闭统计；启用时将已有的统计注册为 JMX MBean，关闭时保留已记录的数据
+	 * 
+	 * @param enabled
+	 *        是否启用统计
+	 */
+	public static synchronized void setEnabled(final boolean enabled) {
+		if (enabled && Metrics.enabled == false) {
+			for (AlgorithmMetrics metrics : METRICS.values()) {
+				register(metrics);
+			}
+		}
+
+		Metrics.enabled = enabled;
+	}
+
+	/**
+	 * 返回指定算法和提供者的统计
+	 * 
+	 * @param algo
+	 *        算法名称
+	 * @param provider
+	 *        提供者名称
+	 * @return 统计，尚未使用过该组合时返回 null
+	 */
+	public static AlgorithmMetrics get(final String algo, final String provider) {
+		return METRICS.get(key(algo, provider));
+	}
+
+	/**
+	 * 返回全部统计
+	 * 
+	 * @return 全部统计
+	 */
+	public static Collection<AlgorithmMetrics> getAll() {
+		return new ArrayList<AlgorithmMetrics>(METRICS.values());
+	}
+
+	/**
+	 * 清空全部统计
+	 */
+	public static void reset() {
+		for (AlgorithmMetrics metrics : METRICS.values()) {
+			metrics.reset();
+		}
+	}
+
+	/**
+	 * 返回指定算法和提供者的统计，不存在时创建
+	 * 
+	 * @param algo
+	 *        算法名称
+	 * @param provider
+	 *        提供者名称
+	 * @return 统计
+	 */
+	static AlgorithmMetrics of(final String algo, final String provider) {
+		final String key = key(algo, provider);
+		AlgorithmMetrics metrics = METRICS.get(key);
+
+		if (metrics == null) {
+			synchronized (Metrics.class) {
+				metrics = METRICS.get(key);
+
+				if (metrics == null) {
+					metrics = new AlgorithmMetrics(algo, provider);
+					METRICS.put(key, metrics);
+
+					if (enabled) {
+						register(metrics);
+					}
+				}
+			}
+		}
+
+		return metrics;
+	}
+
+	/**
+	 * 开始计时
+	 * 
+	 * @return 启用统计时返回当前时间，否则返回 {@link #DISABLED}
+	 */
+	static long start() {
+		return enabled && SUSPENDED.get()[0] == 0 ? System.nanoTime() : DISABLED;
+	}
+
+	/**
+	 * 暂停当前线程的统计，需与 {@link #resume()} 成对调用；用于预热等不应计入统计的调用
+	 */
+	static void suspend() {
+		SUSPENDED.get()[0]++;
+	}
+
+	/**
+	 * 恢复当前线程的统计
+	 */
+	static void resume() {
+		SUSPENDED.get()[0]--;
+	}
+
+	/**
+	 * 结束计时并记录
+	 * 
+	 * @param engine
+	 *        信息摘要引擎
+	 * @param start
+	 *        {@link #start()} 的返回值
+	 * @param bytes
+	 *        第一轮输入的字节数
+	 * @param rounds
+	 *        摘要轮数
+	 */
+	static void record(final DigestEngine engine, final long start, final long bytes,
+			final int rounds) {
+		if (start != DISABLED) {
+			engine.getMetrics().record(bytes, rounds, System.nanoTime() - start);
+		}
+	}
+
+	private static void register(final AlgorithmMetrics metrics) {
+		final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+
+		try {
+			final ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,algo=" + ObjectName
+					.quote(metrics.getAlgo()) + ",provider=" + ObjectName.quote(metrics
+					.getProvider()));
+
+			if (server.isRegistered(name) == false) {
+				server.registerMBean(metrics, name);
+			}
+		} catch (final JMException e) {
+			logger.warn("Register metrics MBean for algo <{}> failure: {}", metrics.getAlgo(), e
+					.getMessage());
+		}
+	}
+
+	private static String key(final String algo, final String provider) {
+		return algo + '/' + provider;
+	}
+
+}
@@ -0,0 +1,617 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 多算法单次读取加密
+ * 
+ * 输入只读取一次，每个分块依次写入全部 Mcrypt 的摘要，每个 Mcrypt 的结果与单独调用
+ * {@link Mcrypt#encode(InputStream)} 等方法相同（包括加密密钥和重复加密次数）。
+ * 
+ * 设置 {@link #setExecutor(Executor)} 后按算法并行：内存中的数据（byte[]、ByteBuffer、映射的文件）由各算法同时读取；
+ * 流和通道采用双缓冲，工作线程处理当前分块时读取下一块。尚未开始执行的任务由调用线程自己执行，
+ * 因此线程池已满或在同一线程池内调用时不会死锁
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class MultiMcrypt {
+
+	/**
+	 * 并行时每个分块的默认大小
+	 */
+	public final static int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+	private final Mcrypt[] mcrypts;
+
+	/**
+	 * 并行时每个分块的大小
+	 */
+	private volatile int chunkSize = DEFAULT_CHUNK_SIZE;
+
+	/**
+	 * 文件分段映射时每段的大小
+	 */
+	private volatile int mapWindowSize = Mcrypt.DEFAULT_MAP_WINDOW_SIZE;
+
+	/**
+	 * 文件大小不小于该值时才映射到内存
+	 */
+	private volatile long mapThreshold = Mcrypt.DEFAULT_MAP_THRESHOLD;
+
+	/**
+	 * 按算法并行使用的线程池，为 null 时在调用线程中依次处理
+	 */
+	private volatile Executor executor;
+
+	/**
+	 * @param mcrypts
+	 *        加密对象，结果按该顺序排列
+	 */
+	public MultiMcrypt(final Mcrypt... mcrypts) {
+		if (mcrypts == null || mcrypts.length == 0) {
+			throw new IllegalArgumentException("Mcrypts could not be null");
+		}
+
+		for (Mcrypt mcrypt : mcrypts) {
+			if (mcrypt == null) {
+				throw new IllegalArgumentException("Mcrypt could not be null");
+			}
+		}
+
+		this.mcrypts = mcrypts.clone();
+	}
+
+	/**
+	 * 以默认参数（不加密钥、只加密一次）的 Mcrypt 创建
+	 * 
+	 * @param algos
+	 *        请求算法的名称，结果按该顺序排列
+	 * @return 多算法加密对象
+	 */
+	public static MultiMcrypt of(final String... algos) {
+		if (algos == null || algos.length == 0) {
+			throw new IllegalArgumentException("Algos could not be null");
+		}
+
+		final Mcrypt[] mcrypts = new Mcrypt[algos.length];
+
+		for (int i = 0; i < algos.length; i++) {
+			mcrypts[i] = new Mcrypt(algos[i]);
+		}
+
+		return new MultiMcrypt(mcrypts);
+	}
+
+	/**
+	 * 返回并行时每个分块的大小
+	 * 
+	 * @return 每个分块的大小
+	 */
+	public int getChunkSize() {
+		return chunkSize;
+	}
+
+	/**
+	 * 设置并行时每个分块的大小
+	 * 
+	 * @param chunkSize
+	 *        每个分块的大小
+	 */
+	public void setChunkSize(final int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size could not less than 1");
+		}
+
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * 返回文件分段映射时每段的大小
+	 * 
+	 * @return 每段的大小
+	 */
+	public int getMapWindowSize() {
+		return mapWindowSize;
+	}
+
+	/**
+	 * 设置文件分段映射时每段的大小
+	 * 
+	 * @param mapWindowSize
+	 *        每段的大小
+	 */
+	public void setMapWindowSize(final int mapWindowSize) {
+		if (mapWindowSize < 1) {
+			throw new IllegalArgumentException("Map window size could not less than 1");
+		}
+
+		this.mapWindowSize = mapWindowSize;
+	}
+
+	/**
+	 * 返回文件映射到内存的阈值
+	 * 
+	 * @return 文件映射到内存的阈值
+	 */
+	public long getMapThreshold() {
+		return mapThreshold;
+	}
+
+	/**
+	 * 设置文件映射到内存的阈值
+	 * 
+	 * @param mapThreshold
+	 *        文件大小不小于该值时才映射到内存
+	 */
+	public void setMapThreshold(final long mapThreshold) {
+		if (mapThreshold < 0) {
+			throw new IllegalArgumentException("Map threshold could not less than 0");
+		}
+
+		this.mapThreshold = mapThreshold;
+	}
+
+	/**
+	 * 返回按算法并行使用的线程池
+	 * 
+	 * @return 线程池，未设置时为 null
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * 设置按算法并行使用的线程池
+	 * 
+	 * @param executor
+	 *        线程池，为 null 时在调用线程中依次处理
+	 */
+	public void setExecutor(final Executor executor) {
+		this.executor = executor;
+	}
+
+	/**
+	 * 字节数组加密
+	 * 
+	 * @param bytes
+	 *        需要加密的字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @return 各算法的加密结果
+	 */
+	public MultiMcryptResult encode(final byte[] bytes, final int offset, final int length) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Bytes could not be null");
+		}
+
+		if (offset < 0 || length < 0 || offset > bytes.length - length) {
+			throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length +
+					" out of bounds for length " + bytes.length);
+		}
+
+		return encode(ByteBuffer.wrap(bytes, offset, length));
+	}
+
+	/**
+	 * 缓冲区加密，读取 position 到 limit 之间的字节，返回后 position 等于 limit
+	 * 
+	 * @param buffer
+	 *        需要加密的缓冲区
+	 * @return 各算法的加密结果
+	 */
+	public MultiMcryptResult encode(final ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Buffer could not be null");
+		}
+
+		final Lane[] lanes = begin();
+
+		try {
+			update(lanes, buffer, executor);
+			buffer.position(buffer.limit());
+
+			return finish(lanes);
+		} finally {
+			release(lanes);
+		}
+	}
+
+	/**
+	 * 输入流加密，方法不会关闭输入流
+	 * 
+	 * @param inputStream
+	 *        需要加密的输入流
+	 * @return 各算法的加密结果
+	 * @throws IOException
+	 *         读取输入流出错
+	 */
+	public MultiMcryptResult encode(final InputStream inputStream) throws IOException {
+		if (inputStream == null) {
+			throw new IllegalArgumentException("InputStream could not be null");
+		}
+
+		return encode(new StreamSource(inputStream));
+	}
+
+	/**
+	 * 通道加密，通道须为阻塞模式，方法不会关闭通道
+	 * 
+	 * @param channel
+	 *        需要加密的通道
+	 * @return 各算法的加密结果
+	 * @throws IOException
+	 *         读取通道出错
+	 */
+	public MultiMcryptResult encode(final ReadableByteChannel channel) throws IOException {
+		if (channel == null) {
+			throw new IllegalArgumentException("Channel could not be null");
+		}
+
+		return encode(new ChannelSource(channel));
+	}
+
+	/**
+	 * 文件加密
+	 * 
+	 * 不小于 {@link #getMapThreshold()} 的文件按 {@link #getMapWindowSize()} 分段映射到内存，
+	 * 较小的文件分块读取
+	 * 
+	 * @param path
+	 *        需要加密的文件
+	 * @return 各算法的加密结果
+	 * @throws IOException
+	 *         读取文件出错
+	 */
+	public MultiMcryptResult encodeFile(final Path path) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Path could not be null");
+		}
+
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			final long size = channel.size();
+
+			if (size < mapThreshold) {
+				return encode(new ChannelSource(channel));
+			}
+
+			final Executor executor = this.executor;
+			final int mapWindowSize = this.mapWindowSize;
+			final Lane[] lanes = begin();
+
+			try {
+				for (long position = 0; position < size; position += mapWindowSize) {
+					final MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY,
+							position, Math.min(mapWindowSize, size - position));
+
+					update(lanes, window, executor);
+				}
+
+				return finish(lanes);
+			} finally {
+				release(lanes);
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	private MultiMcryptResult encode(final Source source) throws IOException {
+		final Executor executor = this.executor;
+		final Lane[] lanes = begin();
+
+		try {
+			if (executor == null || lanes.length == 1) {
+				final byte[] chunk = Scratch.get().chunk();
+				int length;
+
+				while((length = source.read(chunk)) != -1) {
+					for (Lane lane : lanes) {
+						lane.update(chunk, 0, length);
+					}
+				}
+			} else {
+				final int chunkSize = this.chunkSize;
+				byte[] current = new byte[chunkSize];
+				byte[] next = new byte[chunkSize];
+				int length = source.read(current);
+
+				while(length != -1) {
+					final FutureTask<?>[] tasks = submit(lanes, current, length, executor);
+
+					try {
+						length = source.read(next);
+					} finally {
+						await(tasks);
+					}
+
+					final byte[] swap = current;
+					current = next;
+					next = swap;
+				}
+			}
+
+			return finish(lanes);
+		} finally {
+			release(lanes);
+		}
+	}
+
+	private Lane[] begin() {
+		final Lane[] lanes = new Lane[mcrypts.length];
+
+		try {
+			for (int i = 0; i < mcrypts.length; i++) {
+				lanes[i] = new Lane(mcrypts[i].getSettings());
+			}
+		} catch (final RuntimeException e) {
+			release(lanes);
+			throw e;
+		}
+
+		return lanes;
+	}
+
+	private static void update(final Lane[] lanes, final ByteBuffer buffer,
+			final Executor executor) {
+		if (executor == null || lanes.length == 1) {
+			for (Lane lane : lanes) {
+				lane.update(buffer.duplicate());
+			}
+
+			return;
+		}
+
+		final FutureTask<?>[] tasks = new FutureTask<?>[lanes.length];
+
+		for (int i = 0; i < lanes.length; i++) {
+			final Lane lane = lanes[i];
+			final ByteBuffer view = buffer.duplicate();
+
+			tasks[i] = new FutureTask<Object>(new Runnable() {
+
+				@Override
+				public void run() {
+					lane.update(view);
+				}
+
+			}, null);
+			execute(executor, tasks[i]);
+		}
+
+		await(tasks);
+	}
+
+	private static FutureTask<?>[] submit(final Lane[] lanes, final byte[] chunk, final int length,
+			final Executor executor) {
+		final FutureTask<?>[] tasks = new FutureTask<?>[lanes.length];
+
+		for (int i = 0; i < lanes.length; i++) {
+			final Lane lane = lanes[i];
+
+			tasks[i] = new FutureTask<Object>(new Runnable() {
+
+				@Override
+				public void run() {
+					lane.update(chunk, 0, length);
+				}
+
+			}, null);
+			execute(executor, tasks[i]);
+		}
+
+		return tasks;
+	}
+
+	/**
+	 * 提交任务；线程池拒绝时由调用线程直接执行，不抛出异常，
+	 * 保证已提交的任务结束前摘要对象不会被归还
+	 */
+	private static void execute(final Executor executor, final FutureTask<?> task) {
+		try {
+			executor.execute(task);
+		} catch (final RejectedExecutionException e) {
+			task.run();
+		}
+	}
+
+	/**
+	 * 等待全部任务完成，尚未开始的任务由调用线程执行；任一任务失败时，等全部任务结束后再抛出第一个异常
+	 */
+	private static void await(final FutureTask<?>[] tasks) {
+		for (FutureTask<?> task : tasks) {
+			task.run();
+		}
+
+		Throwable failure = null;
+		boolean interrupted = false;
+
+		for (FutureTask<?> task : tasks) {
+			while(true) {
+				try {
+					task.get();
+					break;
+				} catch (final InterruptedException e) {
+					interrupted = true;
+				} catch (final ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+					}
+					break;
+				}
+			}
+		}
+
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		} else if (failure instanceof Error) {
+			throw (Error) failure;
+		} else if (failure != null) {
+			throw new IllegalStateException(failure);
+		}
+	}
+
+	private static MultiMcryptResult finish(final Lane[] lanes) {
+		final String[] algos = new String[lanes.length];
+		final String[] results = new String[lanes.length];
+
+		for (int i = 0; i < lanes.length; i++) {
+			algos[i] = lanes[i].settings.algo;
+			results[i] = lanes[i].finish();
+		}
+
+		return new MultiMcryptResult(algos, results);
+	}
+
+	private static void release(final Lane[] lanes) {
+		for (Lane lane : lanes) {
+			if (lane != null) {
+				lane.engine.release(lane.messageDigest);
+			}
+		}
+	}
+
+	/**
+	 * 单个 Mcrypt 的摘要状态
+	 */
+	private final static class Lane {
+
+		private final Settings settings;
+
+		private final IterationEngine iteration;
+
+		private final DigestEngine engine;
+
+		private final MessageDigest messageDigest;
+
+		private final MessageDigest round;
+
+		private final long start;
+
+		private long bytes;
+
+		public Lane(final Settings settings) {
+			this.settings = settings;
+			this.engine = settings.digestEngine();
+			this.iteration = settings.iterationEngine();
+			this.start = Metrics.start();
+			this.messageDigest = engine.acquire();
+			this.round = iteration.begin(messageDigest);
+		}
+
+		void update(final byte[] bytes, final int offset, final int length) {
+			round.update(bytes, offset, length);
+			this.bytes += length;
+		}
+
+		void update(final ByteBuffer buffer) {
+			this.bytes += buffer.remaining();
+			round.update(buffer);
+		}
+
+		String finish() {
+			final byte[] digest = Scratch.get().digest(engine.getDigestLength());
+			final int length = Mcrypt.finish(settings, iteration, messageDigest, round, digest,
+					start, bytes);
+
+			return settings.outputEncoding.encode(digest, 0, length);
+		}
+
+	}
+
+	/**
+	 * 分块读取的数据源
+	 */
+	private interface Source {
+
+		int read(byte[] buffer) throws IOException;
+
+	}
+
+	private final static class StreamSource implements Source {
+
+		private final InputStream inputStream;
+
+		public StreamSource(final InputStream inputStream) {
+			this.inputStream = inputStream;
+		}
+
+		@Override
+		public int read(final byte[] buffer) throws IOException {
+			return inputStream.read(buffer, 0, buffer.length);
+		}
+
+	}
+
+	private final static class ChannelSource implements Source {
+
+		private final ReadableByteChannel channel;
+
+		private byte[] array;
+
+		private ByteBuffer wrapper;
+
+		public ChannelSource(final ReadableByteChannel channel) {
+			this.channel = channel;
+		}
+
+		@Override
+		public int read(final byte[] buffer) throws IOException {
+			if (buffer != array) {
+				array = buffer;
+				wrapper = ByteBuffer.wrap(buffer);
+			} else {
+				wrapper.clear();
+			}
+
+			return channel.read(wrapper);
+		}
+
+	}
+
+}
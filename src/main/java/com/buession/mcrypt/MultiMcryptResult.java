@@ -0,0 +1,119 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 多算法加密结果，顺序与创建 {@link MultiMcrypt} 时的 Mcrypt 顺序一致
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class MultiMcryptResult {
+
+	private final String[] algos;
+
+	private final String[] results;
+
+	MultiMcryptResult(final String[] algos, final String[] results) {
+		this.algos = algos;
+		this.results = results;
+	}
+
+	/**
+	 * 返回结果个数
+	 * 
+	 * @return 结果个数
+	 */
+	public int size() {
+		return results.length;
+	}
+
+	/**
+	 * 返回第 index 个 Mcrypt 的加密结果
+	 * 
+	 * @param index
+	 *        下标
+	 * @return 加密结果
+	 */
+	public String get(final int index) {
+		return results[index];
+	}
+
+	/**
+	 * 返回指定算法的加密结果；同一算法有多个 Mcrypt 时返回第一个
+	 * 
+	 * @param algo
+	 *        请求算法的名称
+	 * @return 加密结果，不存在时返回 null
+	 */
+	public String get(final String algo) {
+		for (int i = 0; i < algos.length; i++) {
+			if (algos[i].equalsIgnoreCase(algo)) {
+				return results[i];
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 * 返回各结果对应的算法名称
+	 * 
+	 * @return 算法名称
+	 */
+	public List<String> getAlgos() {
+		return Collections.unmodifiableList(Arrays.asList(algos));
+	}
+
+	/**
+	 * 返回算法名称到加密结果的映射；同一算法有多个 Mcrypt 时保留第一个
+	 * 
+	 * @return 算法名称到加密结果的映射
+	 */
+	public Map<String, String> toMap() {
+		final Map<String, String> map = new LinkedHashMap<String, String>(algos.length << 1);
+
+		for (int i = 0; i < algos.length; i++) {
+			if (map.containsKey(algos[i]) == false) {
+				map.put(algos[i], results[i]);
+			}
+		}
+
+		return map;
+	}
+
+	@Override
+	public String toString() {
+		return "MultiMcryptResult" + toMap();
+	}
+
+}
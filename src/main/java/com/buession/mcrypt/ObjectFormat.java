@@ -0,0 +1,48 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+/**
+ * 加密对象时，对象转换为摘要输入的方式
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public enum ObjectFormat {
+
+	/**
+	 * 使用 toString() 的结果按字符串编码，与早期版本的输出一致；
+	 * Map、Set 的结果依赖遍历顺序，数组的结果依赖对象地址
+	 */
+	TO_STRING,
+
+	/**
+	 * 按 {@link CanonicalEncoder} 的格式逐项写入摘要，带类型和长度前缀，Map 的键、Set 的元素排序后写入，
+	 * 结果只取决于对象内容；字符串固定使用 UTF-8
+	 */
+	CANONICAL
+
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+/**
+ * 加密结果的输出编码
+ * 
+ * 只影响最终结果的格式，不影响 {@link ChainMode#HEX} 重复加密时每一轮的输入；
+ * 需要原始摘要字节时使用 {@link Mcrypt#digest(Object)} 或 {@link Mcrypt#digestTo(Object, byte[], int)}
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public enum OutputEncoding {
+
+	/**
+	 * 小写十六进制，与早期版本的结果一致；解码时大小写均可
+	 */
+	HEX {
+
+		@Override
+		public int encodedLength(final int length) {
+			return length << 1;
+		}
+
+		@Override
+		String encode(final byte[] bytes, final int offset, final int length) {
+			return Hex.encode(bytes, offset, length);
+		}
+
+		@Override
+		int encodeTo(final byte[] bytes, final int offset, final int length, final char[] dest,
+				final int destOffset) {
+			return Hex.encodeTo(bytes, offset, length, dest, destOffset);
+		}
+
+		@Override
+		int encodeTo(final byte[] bytes, final int offset, final int length, final byte[] dest,
+				final int destOffset) {
+			return Hex.encodeTo(bytes, offset, length, dest, destOffset);
+		}
+
+		@Override
+		boolean tryDecodeTo(final CharSequence encoded, final byte[] dest, final int length) {
+			return encoded.length() == length << 1 && Hex.tryDecodeTo(encoded, dest, 0);
+		}
+
+	},
+
+	/**
+	 * URL 安全的 Base64，不带填充字符，比十六进制短三分之一
+	 */
+	BASE64_URL {
+
+		@Override
+		public int encodedLength(final int length) {
+			return Base64Url.encodedLength(length);
+		}
+
+		@Override
+		String encode(final byte[] bytes, final int offset, final int length) {
+			return Base64Url.encode(bytes, offset, length);
+		}
+
+		@Override
+		int encodeTo(final byte[] bytes, final int offset, final int length, final char[] dest,
+				final int destOffset) {
+			return Base64Url.encodeTo(bytes, offset, length, dest, destOffset);
+		}
+
+		@Override
+		int encodeTo(final byte[] bytes, final int offset, final int length, final byte[] dest,
+				final int destOffset) {
+			return Base64Url.encodeTo(bytes, offset, length, dest, destOffset);
+		}
+
+		@Override
+		boolean tryDecodeTo(final CharSequence encoded, final byte[] dest, final int length) {
+			return Base64Url.decodedLength(encoded.length()) == length && Base64Url.tryDecodeTo(
+					encoded, dest, 0);
+		}
+
+	};
+
+	/**
+	 * 返回 length 个字节编码后的字符数
+	 * 
+	 * @param length
+	 *        字节数
+	 * @return 编码后的字符数
+	 */
+	public abstract int encodedLength(int length);
+
+	abstract String encode(byte[] bytes, int offset, int length);
+
+	abstract int encodeTo(byte[] bytes, int offset, int length, char[] dest, int destOffset);
+
+	abstract int encodeTo(byte[] bytes, int offset, int length, byte[] dest, int destOffset);
+
+	/**
+	 * 将编码后的结果解码到 dest 的起始位置
+	 * 
+	 * @param encoded
+	 *        编码后的结果
+	 * @param dest
+	 *        目标缓冲区
+	 * @param length
+	 *        预期的字节数
+	 * @return 长度与预期一致且全部为合法字符时返回 true
+	 */
+	abstract boolean tryDecodeTo(CharSequence encoded, byte[] dest, int length);
+
+}
@@ -0,0 +1,343 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.security.Provider;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 口令加密
+ * 
+ * 加密结果为自描述格式，算法和重复加密次数与结果保存在一起，修改参数后旧的结果仍可校验：
+ * 
+ * <pre>
+ * $mc1$算法$重复加密次数$加密密钥$十六进制结果
+ * </pre>
+ * 
+ * mc1 表示字符串按 UTF-8 编码、加密密钥加在输入之后、每一轮以上一轮结果的十六进制字符串作为输入，
+ * 与 {@link Mcrypt} 的默认行为一致；加密密钥为 16 个随机字节的 URL 安全 Base64 编码（无填充）。
+ * 重复加密次数可由 {@link #calibrate(String, long, TimeUnit)} 按本机实测耗时选择，不能超过 {@link #MAX_COUNT}
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class PasswordMcrypt {
+
+	/**
+	 * 格式标识
+	 */
+	public final static String PREFIX = "$mc1$";
+
+	/**
+	 * 重复加密次数上限，校验时重复加密次数超过该值的加密结果视为格式错误，避免构造的加密结果耗尽 CPU
+	 */
+	public final static int MAX_COUNT = 10000000;
+
+	/**
+	 * 随机加密密钥的字节数
+	 */
+	private final static int SALT_LENGTH = 16;
+
+	/**
+	 * 校准时每次测量的最短耗时与目标耗时之比
+	 */
+	private final static int CALIBRATION_FRACTION = 8;
+
+	/**
+	 * 校准时每个轮数重复测量的次数，取最小值
+	 */
+	private final static int CALIBRATION_RUNS = 5;
+
+	private final static SecureRandom RANDOM = new SecureRandom();
+
+	private final String algo;
+
+	private final Provider provider;
+
+	private final int count;
+
+	private final Mcrypt mcrypt;
+
+	/**
+	 * @param algo
+	 *        请求算法的名称
+	 * @param count
+	 *        重复加密次数，不能超过 {@link #MAX_COUNT}
+	 */
+	public PasswordMcrypt(final String algo, final int count) {
+		this(algo, count, null);
+	}
+
+	/**
+	 * @param algo
+	 *        请求算法的名称
+	 * @param count
+	 *        重复加密次数，不能超过 {@link #MAX_COUNT}
+	 * @param provider
+	 *        信息摘要对象的提供者
+	 */
+	public PasswordMcrypt(final String algo, final int count, final Provider provider) {
+		if (algo == null || algo.length() == 0 || algo.indexOf('$') >= 0) {
+			throw new IllegalArgumentException("Algo could not be null or contains '$'");
+		}
+
+		if (count > MAX_COUNT) {
+			throw new IllegalArgumentException("Count could not greater than " + MAX_COUNT);
+		}
+
+		this.algo = algo;
+		this.count = count;
+		this.provider = provider;
+		this.mcrypt = create(algo, count, provider);
+	}
+
+	/**
+	 * 在本机实测每一轮的耗时，返回加密一次约耗时 target 的 PasswordMcrypt
+	 * 
+	 * @param algo
+	 *        请求算法的名称
+	 * @param target
+	 *        目标耗时
+	 * @param unit
+	 *        目标耗时单位
+	 * @return 口令加密对象
+	 */
+	public static PasswordMcrypt calibrate(final String algo, final long target,
+			final TimeUnit unit) {
+		return calibrate(algo, null, target, unit);
+	}
+
+	/**
+	 * 在本机实测每一轮的耗时，返回加密一次约耗时 target 的 PasswordMcrypt
+	 * 
+	 * @param algo
+	 *        请求算法的名称
+	 * @param provider
+	 *        信息摘要对象的提供者
+	 * @param target
+	 *        目标耗时
+	 * @param unit
+	 *        目标耗时单位
+	 * @return 口令加密对象
+	 */
+	public static PasswordMcrypt calibrate(final String algo, final Provider provider,
+			final long target, final TimeUnit unit) {
+		return new PasswordMcrypt(algo, calibrateCount(algo, provider, target, unit), provider);
+	}
+
+	/**
+	 * 在本机实测每一轮的耗时，返回加密一次约耗时 target 的重复加密次数
+	 * 
+	 * 从 1000 轮开始测量，单次耗时不足目标的八分之一时轮数乘 4 后重新测量，每个轮数取 5 次测量中的最小值
+	 * 
+	 * @param algo
+	 *        请求算法的名称
+	 * @param provider
+	 *        信息摘要对象的提供者
+	 * @param target
+	 *        目标耗时
+	 * @param unit
+	 *        目标耗时单位
+	 * @return 重复加密次数，不小于 1，不超过 {@link #MAX_COUNT}
+	 */
+	public static int calibrateCount(final String algo, final Provider provider,
+			final long target, final TimeUnit unit) {
+		if (target < 1) {
+			throw new IllegalArgumentException("Target latency could not less than 1");
+		}
+
+		final long targetNanos = unit.toNanos(target);
+		final String salt = newSalt();
+		int rounds = 1000;
+
+		while(true) {
+			final Mcrypt probe = create(algo, rounds, provider);
+			long best = Long.MAX_VALUE;
+
+			for (int i = 0; i < CALIBRATION_RUNS; i++) {
+				final long start = System.nanoTime();
+
+				probe.encode(salt);
+				best = Math.min(best, System.nanoTime() - start);
+			}
+
+			if (best >= targetNanos / CALIBRATION_FRACTION || rounds > MAX_COUNT >>> 2) {
+				final double perRound = (double) Math.max(1, best) / rounds;
+				return (int) Math.max(1, Math.min(MAX_COUNT, targetNanos / perRound));
+			}
+
+			rounds <<= 2;
+		}
+	}
+
+	/**
+	 * 返回请求算法的名称
+	 * 
+	 * @return 请求算法的名称
+	 */
+	public String getAlgo() {
+		return algo;
+	}
+
+	/**
+	 * 返回重复加密次数
+	 * 
+	 * @return 重复加密次数
+	 */
+	public int getCount() {
+		return count;
+	}
+
+	/**
+	 * 使用新的随机加密密钥加密口令
+	 * 
+	 * @param password
+	 *        口令
+	 * @return 自描述格式的加密结果
+	 */
+	public String encode(final CharSequence password) {
+		if (password == null) {
+			throw new IllegalArgumentException("Password could not be null");
+		}
+
+		final String salt = newSalt();
+
+		return PREFIX + algo + '$' + count + '$' + salt + '$' + mcrypt.encode(password, salt);
+	}
+
+	/**
+	 * 校验口令，使用加密结果中保存的算法、重复加密次数和加密密钥；比较耗时与结果在何处不同无关
+	 * 
+	 * @param password
+	 *        口令
+	 * @param encoded
+	 *        {@link #encode(CharSequence)} 的结果
+	 * @return 口令是否正确；格式错误、重复加密次数超过 {@link #MAX_COUNT} 或算法不可用时返回 false
+	 */
+	public boolean matches(final CharSequence password, final String encoded) {
+		if (password == null) {
+			throw new IllegalArgumentException("Password could not be null");
+		}
+
+		final Encoded parsed = Encoded.parse(encoded);
+
+		if (parsed == null) {
+			return false;
+		}
+
+		final Mcrypt mcrypt;
+
+		if (parsed.algo.equals(algo) && parsed.count == count) {
+			mcrypt = this.mcrypt;
+		} else {
+			try {
+				mcrypt = create(parsed.algo, parsed.count, provider);
+			} catch (final SecurityException e) {
+				return false;
+			}
+		}
+
+		return mcrypt.matches(password, parsed.salt, parsed.hash);
+	}
+
+	/**
+	 * 返回加密结果是否需要以当前参数重新加密（算法或重复加密次数不同，或格式无法识别）
+	 * 
+	 * @param encoded
+	 *        {@link #encode(CharSequence)} 的结果
+	 * @return 是否需要重新加密
+	 */
+	public boolean needsRehash(final String encoded) {
+		final Encoded parsed = Encoded.parse(encoded);
+		return parsed == null || parsed.algo.equals(algo) == false || parsed.count != count;
+	}
+
+	@Override
+	public String toString() {
+		return "PasswordMcrypt{algo=" + algo + ", count=" + count + "}";
+	}
+
+	private static Mcrypt create(final String algo, final int count, final Provider provider) {
+		return Mcrypt.builder(algo).provider(provider).characterEncoding("UTF-8").count(count)
+				.build();
+	}
+
+	private static String newSalt() {
+		final byte[] bytes = new byte[SALT_LENGTH];
+
+		RANDOM.nextBytes(bytes);
+
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+	}
+
+	/**
+	 * 解析后的加密结果
+	 */
+	private final static class Encoded {
+
+		private final String algo;
+
+		private final int count;
+
+		private final String salt;
+
+		private final String hash;
+
+		private Encoded(final String algo, final int count, final String salt, final String hash) {
+			this.algo = algo;
+			this.count = count;
+			this.salt = salt;
+			this.hash = hash;
+		}
+
+		static Encoded parse(final String encoded) {
+			if (encoded == null || encoded.startsWith(PREFIX) == false) {
+				return null;
+			}
+
+			final String[] parts = encoded.substring(PREFIX.length()).split("\\$", -1);
+
+			if (parts.length != 4 || parts[0].length() == 0 || parts[2].length() == 0) {
+				return null;
+			}
+
+			final int count;
+
+			try {
+				count = Integer.parseInt(parts[1]);
+			} catch (final NumberFormatException e) {
+				return null;
+			}
+
+			return count < 1 || count > MAX_COUNT ? null : new Encoded(parts[0], count, parts[2],
+					parts[3]);
+		}
+
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+/**
+ * 加密密钥在每一轮输入中的位置
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public enum SaltPosition {
+
+	/**
+	 * 加密密钥在输入之前；较长的密钥只吸收一次，之后从保存的摘要中间状态克隆
+	 */
+	PREFIX,
+
+	/**
+	 * 加密密钥在输入之后，与早期版本的结果一致
+	 */
+	SUFFIX,
+
+	/**
+	 * 输入前后各加一次加密密钥
+	 */
+	BOTH;
+
+	boolean isPrefix() {
+		return this != SUFFIX;
+	}
+
+	boolean isSuffix() {
+		return this != PREFIX;
+	}
+
+}
@@ -0,0 +1,196 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 线程内复用的临时缓冲区
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class Scratch {
+
+	/**
+	 * 流式读取的分块大小
+	 */
+	final static int CHUNK_SIZE = 8192;
+
+	private final static ThreadLocal<Scratch> SCRATCH = new ThreadLocal<Scratch>() {
+
+		@Override
+		protected Scratch initialValue() {
+			return new Scratch();
+		}
+
+	};
+
+	/**
+	 * 摘要缓冲区
+	 */
+	private byte[] digest = new byte[64];
+
+	/**
+	 * 十六进制字节缓冲区
+	 */
+	private byte[] hex = new byte[128];
+
+	/**
+	 * 解码后的预期摘要缓冲区
+	 */
+	private byte[] expected = new byte[64];
+
+	/**
+	 * 流式读取的分块缓冲区
+	 */
+	private byte[] chunk;
+
+	/**
+	 * 通道读取的直接缓冲区
+	 */
+	private ByteBuffer directChunk;
+
+	/**
+	 * 对象规范化编码器
+	 */
+	private CanonicalEncoder canonicalEncoder;
+
+	/**
+	 * 文本编码器
+	 */
+	private TextEncoder textEncoder;
+
+	private Scratch() {
+	}
+
+	/**
+	 * 返回当前线程的临时缓冲区
+	 * 
+	 * @return 当前线程的临时缓冲区
+	 */
+	static Scratch get() {
+		return SCRATCH.get();
+	}
+
+	/**
+	 * 返回至少能容纳 length 字节的摘要缓冲区
+	 * 
+	 * @param length
+	 *        所需字节数
+	 * @return 摘要缓冲区
+	 */
+	byte[] digest(final int length) {
+		if (digest.length < length) {
+			digest = new byte[length];
+		}
+
+		return digest;
+	}
+
+	/**
+	 * 返回至少能容纳 length 字节的十六进制字节缓冲区
+	 * 
+	 * @param length
+	 *        所需字节数
+	 * @return 十六进制字节缓冲区
+	 */
+	byte[] hex(final int length) {
+		if (hex.length < length) {
+			hex = new byte[length];
+		}
+
+		return hex;
+	}
+
+	/**
+	 * 返回至少能容纳 length 字节的预期摘要缓冲区
+	 * 
+	 * @param length
+	 *        所需字节数
+	 * @return 预期摘要缓冲区
+	 */
+	byte[] expected(final int length) {
+		if (expected.length < length) {
+			expected = new byte[length];
+		}
+
+		return expected;
+	}
+
+	/**
+	 * 返回流式读取的分块缓冲区
+	 * 
+	 * @return 分块缓冲区
+	 */
+	byte[] chunk() {
+		if (chunk == null) {
+			chunk = new byte[CHUNK_SIZE];
+		}
+
+		return chunk;
+	}
+
+	/**
+	 * 返回通道读取的直接缓冲区
+	 * 
+	 * @return 直接缓冲区
+	 */
+	ByteBuffer directChunk() {
+		if (directChunk == null) {
+			directChunk = ByteBuffer.allocateDirect(CHUNK_SIZE);
+		}
+
+		return directChunk;
+	}
+
+	/**
+	 * 返回对象规范化编码器
+	 * 
+	 * @return 对象规范化编码器
+	 */
+	CanonicalEncoder canonicalEncoder() {
+		if (canonicalEncoder == null) {
+			canonicalEncoder = new CanonicalEncoder();
+		}
+
+		return canonicalEncoder;
+	}
+
+	/**
+	 * 返回文本编码器
+	 * 
+	 * @return 文本编码器
+	 */
+	TextEncoder textEncoder() {
+		if (textEncoder == null) {
+			textEncoder = new TextEncoder();
+		}
+
+		return textEncoder;
+	}
+
+}
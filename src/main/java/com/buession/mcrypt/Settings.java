@@ -0,0 +1,305 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.charset.Charset;
+import java.security.Provider;
+
+import org.apache.commons.lang3.StringUtils;
+
+/**
+ * 影响加密结果的参数快照
+ * 
+ * 对象创建后不再改变，每次加密只读取一次快照，因此同一 Mcrypt 实例可被多个线程同时使用；
+ * 修改参数时整体替换快照。参数相同（提供者为同一对象）的快照相等，加密结果相同
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class Settings {
+
+	/**
+	 * 请求算法的名称
+	 */
+	final String algo;
+
+	/**
+	 * 信息摘要对象的提供者
+	 */
+	final Provider provider;
+
+	/**
+	 * 字符串编码
+	 */
+	final String characterEncoding;
+
+	/**
+	 * 创建时解析的字符集，字符串编码为空时为平台默认字符集
+	 */
+	final Charset charset;
+
+	/**
+	 * 加密密钥
+	 */
+	final String salt;
+
+	/**
+	 * 重复加密次数
+	 */
+	final int count;
+
+	/**
+	 * 重复加密时，每一轮输入的构造方式
+	 */
+	final ChainMode chainMode;
+
+	/**
+	 * 加密密钥的位置
+	 */
+	final SaltPosition saltPosition;
+
+	/**
+	 * 对象转换为摘要输入的方式
+	 */
+	final ObjectFormat objectFormat;
+
+	/**
+	 * 加密结果的输出编码
+	 */
+	final OutputEncoding outputEncoding;
+
+	/**
+	 * 创建时计算的哈希值
+	 */
+	private final int hash;
+
+	/**
+	 * 信息摘要引擎，首次使用时解析
+	 */
+	private volatile DigestEngine digestEngine;
+
+	/**
+	 * 使用默认加密密钥的重复加密引擎，首次使用时创建
+	 */
+	private volatile IterationEngine iterationEngine;
+
+	/**
+	 * @param algo
+	 *        请求算法的名称
+	 * @param provider
+	 *        信息摘要对象的提供者
+	 * @param characterEncoding
+	 *        字符串编码
+	 * @param salt
+	 *        加密密钥
+	 * @param count
+	 *        重复加密次数
+	 * @param chainMode
+	 *        重复加密时，每一轮输入的构造方式
+	 * @param saltPosition
+	 *        加密密钥的位置
+	 * @param objectFormat
+	 *        对象转换为摘要输入的方式
+	 * @param outputEncoding
+	 *        加密结果的输出编码
+	 */
+	Settings(final String algo, final Provider provider, final String characterEncoding,
+			final String salt, final int count, final ChainMode chainMode,
+			final SaltPosition saltPosition, final ObjectFormat objectFormat,
+			final OutputEncoding outputEncoding) {
+		if (count < 1) {
+			throw new IllegalArgumentException("Count could not less than 1");
+		}
+
+		if (chainMode == null) {
+			throw new IllegalArgumentException("Chain mode could not be null");
+		}
+
+		if (saltPosition == null) {
+			throw new IllegalArgumentException("Salt position could not be null");
+		}
+
+		if (objectFormat == null) {
+			throw new IllegalArgumentException("Object format could not be null");
+		}
+
+		if (outputEncoding == null) {
+			throw new IllegalArgumentException("Output encoding could not be null");
+		}
+
+		this.algo = algo;
+		this.provider = provider;
+		this.characterEncoding = characterEncoding;
+		this.charset = StringUtils.isEmpty(characterEncoding) ? Charset.defaultCharset() : Charset
+				.forName(characterEncoding);
+		this.salt = salt;
+		this.count = count;
+		this.chainMode = chainMode;
+		this.saltPosition = saltPosition;
+		this.objectFormat = objectFormat;
+		this.outputEncoding = outputEncoding;
+
+		int h = algo == null ? 0 : algo.hashCode();
+		h = h * 31 + System.identityHashCode(provider);
+		h = h * 31 + charset.hashCode();
+		h = h * 31 + (salt == null ? 0 : salt.hashCode());
+		h = h * 31 + count;
+		h = h * 31 + chainMode.ordinal();
+		h = h * 31 + saltPosition.ordinal();
+		h = h * 31 + objectFormat.ordinal();
+		h = h * 31 + outputEncoding.ordinal();
+		this.hash = h;
+	}
+
+	Settings withAlgo(final String algo) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withProvider(final Provider provider) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withCharacterEncoding(final String characterEncoding) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withSalt(final String salt) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withCount(final int count) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withChainMode(final ChainMode chainMode) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withSaltPosition(final SaltPosition saltPosition) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withObjectFormat(final ObjectFormat objectFormat) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	Settings withOutputEncoding(final OutputEncoding outputEncoding) {
+		return new Settings(algo, provider, characterEncoding, salt, count, chainMode, saltPosition,
+				objectFormat, outputEncoding);
+	}
+
+	/**
+	 * 返回信息摘要引擎
+	 * 
+	 * @return 信息摘要引擎
+	 */
+	DigestEngine digestEngine() {
+		DigestEngine engine = digestEngine;
+
+		if (engine == null) {
+			engine = DigestEngine.getInstance(algo, provider);
+			digestEngine = engine;
+		}
+
+		return engine;
+	}
+
+	/**
+	 * 返回使用默认加密密钥的重复加密引擎
+	 * 
+	 * @return 重复加密引擎
+	 */
+	IterationEngine iterationEngine() {
+		IterationEngine engine = iterationEngine;
+
+		if (engine == null) {
+			final boolean midstate = saltPosition.isPrefix() && StringUtils.isEmpty(salt) == false;
+
+			engine = new IterationEngine(charset, StringUtils.isEmpty(salt) ? null : salt,
+					chainMode, saltPosition, midstate ? digestEngine() : null);
+			iterationEngine = engine;
+		}
+
+		return engine;
+	}
+
+	/**
+	 * 返回使用指定加密密钥的重复加密引擎
+	 * 
+	 * @param salt
+	 *        加密密钥
+	 * @return 重复加密引擎
+	 */
+	IterationEngine iterationEngine(final String salt) {
+		return new IterationEngine(charset, StringUtils.isEmpty(salt) ? null : salt, chainMode,
+				saltPosition, null);
+	}
+
+	/**
+	 * 立即解析算法、提供者和字符集，不可用时抛出异常
+	 * 
+	 * @return 当前对象
+	 */
+	Settings resolve() {
+		digestEngine();
+		iterationEngine();
+
+		return this;
+	}
+
+	@Override
+	public int hashCode() {
+		return hash;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		if (this == obj) {
+			return true;
+		}
+
+		if (obj instanceof Settings == false) {
+			return false;
+		}
+
+		final Settings that = (Settings) obj;
+		return hash == that.hash && count == that.count && provider == that.provider &&
+				chainMode == that.chainMode && saltPosition == that.saltPosition &&
+				objectFormat == that.objectFormat && outputEncoding == that.outputEncoding &&
+				(algo == null ? that.algo == null : algo.equals(that.algo)) &&
+				charset.equals(that.charset) && (salt == null ? that.salt == null : salt.equals(
+				that.salt));
+	}
+
+}
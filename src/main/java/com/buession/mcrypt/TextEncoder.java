@@ -0,0 +1,218 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * 文本编码器，将字符序列按字符集编码后分块写入摘要
+ * 
+ * UTF-8、US-ASCII 和 ISO-8859-1 直接按码点编码，其它字符集通过线程内复用的 CharsetEncoder 编码；
+ * 编码结果先写入固定大小的缓冲区，满后写入摘要，长文本不会被复制为一个完整的字节数组。
+ * 无法编码的字符与 String.getBytes(Charset) 一致替换为字符集的替换字节；每次写入后缓冲区中用过的部分清零，
+ * 口令等明文不会残留在线程内复用的缓冲区中。非线程安全，通过 {@link Scratch#textEncoder()} 按线程使用
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class TextEncoder {
+
+	/**
+	 * 缓冲区大小
+	 */
+	private final static int BUFFER_SIZE = 1024;
+
+	private final byte[] buffer = new byte[BUFFER_SIZE];
+
+	private final ByteBuffer byteBuffer = ByteBuffer.wrap(buffer);
+
+	/**
+	 * 最近一次使用的字符集编码器
+	 */
+	private CharsetEncoder encoder;
+
+	/**
+	 * 将字符序列按 charset 编码后写入摘要
+	 * 
+	 * @param messageDigest
+	 *        MessageDigest 对象
+	 * @param text
+	 *        字符序列
+	 * @param charset
+	 *        字符集
+	 * @return 写入的字节数
+	 */
+	long update(final MessageDigest messageDigest, final CharSequence text, final Charset charset) {
+		if (StandardCharsets.UTF_8.equals(charset)) {
+			return updateUtf8(messageDigest, text);
+		} else if (StandardCharsets.US_ASCII.equals(charset)) {
+			return updateSingleByte(messageDigest, text, 0x80);
+		} else if (StandardCharsets.ISO_8859_1.equals(charset)) {
+			return updateSingleByte(messageDigest, text, 0x100);
+		} else if (charset.canEncode() == false) {
+			final byte[] bytes = text.toString().getBytes(charset);
+
+			messageDigest.update(bytes);
+			return bytes.length;
+		} else {
+			return updateEncoder(messageDigest, text, charset);
+		}
+	}
+
+	private long updateUtf8(final MessageDigest messageDigest, final CharSequence text) {
+		final byte[] buffer = this.buffer;
+		final int limit = BUFFER_SIZE - 4;
+		long total = 0;
+		int position = 0;
+
+		for (int i = 0, n = text.length(); i < n; i++) {
+			if (position > limit) {
+				messageDigest.update(buffer, 0, position);
+				total += position;
+				position = 0;
+			}
+
+			final char c = text.charAt(i);
+
+			if (c < 0x80) {
+				buffer[position++] = (byte) c;
+			} else if (c < 0x800) {
+				buffer[position++] = (byte) (0xc0 | (c >> 6));
+				buffer[position++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isSurrogate(c) == false) {
+				buffer[position++] = (byte) (0xe0 | (c >> 12));
+				buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+				buffer[position++] = (byte) (0x80 | (c & 0x3f));
+			} else if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text
+					.charAt(i + 1))) {
+				final int codePoint = Character.toCodePoint(c, text.charAt(++i));
+
+				buffer[position++] = (byte) (0xf0 | (codePoint >> 18));
+				buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+				buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+				buffer[position++] = (byte) (0x80 | (codePoint & 0x3f));
+			} else {
+				buffer[position++] = '?';
+			}
+		}
+
+		messageDigest.update(buffer, 0, position);
+		clear(total > 0 ? BUFFER_SIZE : position);
+
+		return total + position;
+	}
+
+	private long updateSingleByte(final MessageDigest messageDigest, final CharSequence text,
+			final int bound) {
+		final byte[] buffer = this.buffer;
+		long total = 0;
+		int position = 0;
+
+		for (int i = 0, n = text.length(); i < n; i++) {
+			if (position == BUFFER_SIZE) {
+				messageDigest.update(buffer, 0, position);
+				total += position;
+				position = 0;
+			}
+
+			final char c = text.charAt(i);
+
+			if (c < bound) {
+				buffer[position++] = (byte) c;
+			} else {
+				if (Character.isHighSurrogate(c) && i + 1 < n && Character.isLowSurrogate(text
+						.charAt(i + 1))) {
+					i++;
+				}
+
+				buffer[position++] = '?';
+			}
+		}
+
+		messageDigest.update(buffer, 0, position);
+		clear(total > 0 ? BUFFER_SIZE : position);
+
+		return total + position;
+	}
+
+	private long updateEncoder(final MessageDigest messageDigest, final CharSequence text,
+			final Charset charset) {
+		final CharsetEncoder encoder = encoder(charset);
+		final CharBuffer in = CharBuffer.wrap(text);
+		long total = 0;
+
+		byteBuffer.clear();
+
+		while(encoder.encode(in, byteBuffer, true).isOverflow()) {
+			total += drain(messageDigest);
+		}
+
+		while(encoder.flush(byteBuffer).isOverflow()) {
+			total += drain(messageDigest);
+		}
+
+		final int last = drain(messageDigest);
+
+		clear(total > 0 ? BUFFER_SIZE : last);
+
+		return total + last;
+	}
+
+	private int drain(final MessageDigest messageDigest) {
+		final int length = byteBuffer.position();
+
+		messageDigest.update(buffer, 0, length);
+		byteBuffer.clear();
+
+		return length;
+	}
+
+	private void clear(final int length) {
+		Arrays.fill(buffer, 0, length, (byte) 0);
+	}
+
+	private CharsetEncoder encoder(final Charset charset) {
+		CharsetEncoder encoder = this.encoder;
+
+		if (encoder == null || encoder.charset().equals(charset) == false) {
+			encoder = charset.newEncoder().onMalformedInput(CodingErrorAction.REPLACE)
+					.onUnmappableCharacter(CodingErrorAction.REPLACE);
+			this.encoder = encoder;
+		} else {
+			encoder.reset();
+		}
+
+		return encoder;
+	}
+
+}
@@ -0,0 +1,167 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * 树形摘要的叶子任务
+ * 
+ * 按叶子下标二分拆分，每个最小任务只取一个摘要对象；文件输入时每个最小任务只映射一次自己负责的区域
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class TreeHashTask extends RecursiveAction {
+
+	private final static long serialVersionUID = 1L;
+
+	private final DigestEngine engine;
+
+	/**
+	 * 内存中的输入，position 为数据起始位置；为 null 时从 channel 映射
+	 */
+	private final ByteBuffer source;
+
+	private final FileChannel channel;
+
+	/**
+	 * 输入的总字节数
+	 */
+	private final long size;
+
+	private final int leafSize;
+
+	/**
+	 * 叶子摘要，按下标依次存放
+	 */
+	private final byte[] leaves;
+
+	private final int from;
+
+	private final int to;
+
+	/**
+	 * 最小任务的叶子数
+	 */
+	private final int grain;
+
+	/**
+	 * @param engine
+	 *        信息摘要引擎
+	 * @param source
+	 *        内存中的输入，为 null 时从 channel 映射
+	 * @param channel
+	 *        文件通道
+	 * @param size
+	 *        输入的总字节数
+	 * @param leafSize
+	 *        叶子大小
+	 * @param leaves
+	 *        叶子摘要
+	 * @param from
+	 *        起始叶子（含）
+	 * @param to
+	 *        结束叶子（不含）
+	 * @param grain
+	 *        最小任务的叶子数
+	 */
+	TreeHashTask(final DigestEngine engine, final ByteBuffer source, final FileChannel channel,
+			final long size, final int leafSize, final byte[] leaves, final int from,
+			final int to, final int grain) {
+		this.engine = engine;
+		this.source = source;
+		this.channel = channel;
+		this.size = size;
+		this.leafSize = leafSize;
+		this.leaves = leaves;
+		this.from = from;
+		this.to = to;
+		this.grain = grain;
+	}
+
+	@Override
+	protected void compute() {
+		if (to - from <= grain) {
+			hash();
+		} else {
+			final int middle = (from + to) >>> 1;
+
+			invokeAll(new TreeHashTask(engine, source, channel, size, leafSize, leaves, from,
+					middle, grain), new TreeHashTask(engine, source, channel, size, leafSize,
+					leaves, middle, to, grain));
+		}
+	}
+
+	private void hash() {
+		final long begin = (long) from * leafSize;
+		final long end = Math.min((long) to * leafSize, size);
+		final ByteBuffer region;
+
+		if (begin >= end) {
+			region = ByteBuffer.allocate(0);
+		} else if (source != null) {
+			region = source.duplicate();
+			region.position(source.position() + (int) begin);
+			region.limit(source.position() + (int) end);
+		} else {
+			try {
+				region = channel.map(FileChannel.MapMode.READ_ONLY, begin, end - begin);
+			} catch (final IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		final MessageDigest messageDigest = engine.acquire();
+		final int digestLength = engine.getDigestLength();
+
+		try {
+			final int base = region.position();
+
+			for (int i = from; i < to; i++) {
+				final int offset = (int) ((long) (i - from) * leafSize);
+
+				region.limit(base + (int) Math.min(offset + (long) leafSize, end - begin));
+				region.position(base + Math.min(offset, (int) (end - begin)));
+
+				messageDigest.update(TreeMcrypt.LEAF);
+				messageDigest.update(region);
+				messageDigest.digest(leaves, i * digestLength, digestLength);
+			}
+		} catch (final DigestException e) {
+			throw new SecurityException(e);
+		} finally {
+			engine.release(messageDigest);
+		}
+	}
+
+}
@@ -0,0 +1,501 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.DigestException;
+import java.security.MessageDigest;
+import java.security.Provider;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * 树形（Merkle）摘要，用于按 CPU 核数并行加密大文件
+ * 
+ * 格式如下，H 为所选算法，|| 表示字节拼接：
+ * 
+ * <ol>
+ * <li>输入按 leafSize 字节切分为叶子，最后一个叶子可以较短；空输入视为一个空叶子</li>
+ * <li>叶子摘要 = H(0x00 || 叶子数据)</li>
+ * <li>逐层两两合并，节点摘要 = H(0x01 || 左子节点摘要 || 右子节点摘要)；某层节点数为奇数时，最后一个节点原样提升到上一层</li>
+ * <li>只剩一个节点时即为根，结果为根的小写十六进制字符串</li>
+ * </ol>
+ * 
+ * 结果取决于算法和 leafSize，与并行度无关，但与同一算法的普通摘要不同；不使用加密密钥和重复加密。
+ * 叶子在 ForkJoinPool 中并行计算，不小于 mapThreshold 的文件由各任务分段映射到内存后直接读取
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class TreeMcrypt {
+
+	/**
+	 * 默认叶子大小
+	 */
+	public final static int DEFAULT_LEAF_SIZE = 1024 * 1024;
+
+	/**
+	 * 叶子摘要的前缀
+	 */
+	final static byte LEAF = 0x00;
+
+	/**
+	 * 节点摘要的前缀
+	 */
+	final static byte NODE = 0x01;
+
+	private final DigestEngine engine;
+
+	/**
+	 * 叶子大小
+	 */
+	private volatile int leafSize = DEFAULT_LEAF_SIZE;
+
+	/**
+	 * 文件分段映射时每段的最大大小
+	 */
+	private volatile int mapWindowSize = Mcrypt.DEFAULT_MAP_WINDOW_SIZE;
+
+	/**
+	 * 文件大小不小于该值时才映射到内存
+	 */
+	private volatile long mapThreshold = Mcrypt.DEFAULT_MAP_THRESHOLD;
+
+	/**
+	 * 计算叶子使用的线程池，为 null 时使用公共池
+	 */
+	private volatile ForkJoinPool forkJoinPool;
+
+	/**
+	 * @param algo
+	 *        请求算法的名称
+	 */
+	public TreeMcrypt(final String algo) {
+		this(algo, null);
+	}
+
+	/**
+	 * @param algo
+	 *        请求算法的名称
+	 * @param provider
+	 *        信息摘要对象的提供者
+	 */
+	public TreeMcrypt(final String algo, final Provider provider) {
+		this.engine = DigestEngine.getInstance(algo, provider);
+	}
+
+	/**
+	 * 返回请求算法的名称
+	 * 
+	 * @return 请求算法的名称
+	 */
+	public String getAlgo() {
+		return engine.getAlgo();
+	}
+
+	/**
+	 * 返回叶子大小
+	 * 
+	 * @return 叶子大小
+	 */
+	public int getLeafSize() {
+		return leafSize;
+	}
+
+	/**
+	 * 设置叶子大小，结果随之改变
+	 * 
+	 * @param leafSize
+	 *        叶子大小
+	 */
+	public void setLeafSize(final int leafSize) {
+		if (leafSize < 1) {
+			throw new IllegalArgumentException("Leaf size could not less than 1");
+		}
+
+		this.leafSize = leafSize;
+	}
+
+	/**
+	 * 返回文件分段映射时每段的最大大小
+	 * 
+	 * @return 每段的最大大小
+	 */
+	public int getMapWindowSize() {
+		return mapWindowSize;
+	}
+
+	/**
+	 * 设置文件分段映射时每段的最大大小，不影响结果
+	 * 
+	 * @param mapWindowSize
+	 *        每段的最大大小
+	 */
+	public void setMapWindowSize(final int mapWindowSize) {
+		if (mapWindowSize < 1) {
+			throw new IllegalArgumentException("Map window size could not less than 1");
+		}
+
+		this.mapWindowSize = mapWindowSize;
+	}
+
+	/**
+	 * 返回文件映射到内存的阈值
+	 * 
+	 * @return 文件映射到内存的阈值
+	 */
+	public long getMapThreshold() {
+		return mapThreshold;
+	}
+
+	/**
+	 * 设置文件映射到内存的阈值，较小的文件按流读取
+	 * 
+	 * @param mapThreshold
+	 *        文件大小不小于该值时才映射到内存
+	 */
+	public void setMapThreshold(final long mapThreshold) {
+		if (mapThreshold < 0) {
+			throw new IllegalArgumentException("Map threshold could not less than 0");
+		}
+
+		this.mapThreshold = mapThreshold;
+	}
+
+	/**
+	 * 返回计算叶子使用的线程池
+	 * 
+	 * @return 线程池，未设置时为 null
+	 */
+	public ForkJoinPool getForkJoinPool() {
+		return forkJoinPool;
+	}
+
+	/**
+	 * 设置计算叶子使用的线程池
+	 * 
+	 * @param forkJoinPool
+	 *        线程池，为 null 时使用公共池
+	 */
+	public void setForkJoinPool(final ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+
+	/**
+	 * 字节数组加密
+	 * 
+	 * @param bytes
+	 *        需要加密的字节数组
+	 * @param offset
+	 *        起始位置
+	 * @param length
+	 *        字节数
+	 * @return 根摘要的十六进制字符串
+	 */
+	public String encode(final byte[] bytes, final int offset, final int length) {
+		if (bytes == null) {
+			throw new IllegalArgumentException("Bytes could not be null");
+		}
+
+		if (offset < 0 || length < 0 || offset > bytes.length - length) {
+			throw new IndexOutOfBoundsException("Offset " + offset + ", length " + length +
+					" out of bounds for length " + bytes.length);
+		}
+
+		return encode(ByteBuffer.wrap(bytes, offset, length));
+	}
+
+	/**
+	 * 缓冲区加密，读取 position 到 limit 之间的字节，返回后 position 等于 limit
+	 * 
+	 * @param buffer
+	 *        需要加密的缓冲区
+	 * @return 根摘要的十六进制字符串
+	 */
+	public String encode(final ByteBuffer buffer) {
+		if (buffer == null) {
+			throw new IllegalArgumentException("Buffer could not be null");
+		}
+
+		final String result = hash(buffer.slice(), null, buffer.remaining());
+
+		buffer.position(buffer.limit());
+
+		return result;
+	}
+
+	/**
+	 * 文件加密
+	 * 
+	 * @param path
+	 *        需要加密的文件
+	 * @return 根摘要的十六进制字符串
+	 * @throws IOException
+	 *         读取文件出错
+	 */
+	public String encodeFile(final Path path) throws IOException {
+		if (path == null) {
+			throw new IllegalArgumentException("Path could not be null");
+		}
+
+		final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+
+		try {
+			final long size = channel.size();
+
+			if (size < mapThreshold) {
+				return encode(Channels.newInputStream(channel));
+			}
+
+			try {
+				return hash(null, channel, size);
+			} catch (final UncheckedIOException e) {
+				throw e.getCause();
+			}
+		} finally {
+			channel.close();
+		}
+	}
+
+	/**
+	 * 输入流加密
+	 * 
+	 * 在调用线程中按叶子大小读取，每读满一个叶子即提交到线程池计算，同时在计算的叶子数不超过并行度的两倍；
+	 * 方法不会关闭输入流
+	 * 
+	 * @param inputStream
+	 *        需要加密的输入流
+	 * @return 根摘要的十六进制字符串
+	 * @throws IOException
+	 *         读取输入流出错
+	 */
+	public String encode(final InputStream inputStream) throws IOException {
+		if (inputStream == null) {
+			throw new IllegalArgumentException("InputStream could not be null");
+		}
+
+		final int leafSize = this.leafSize;
+		final int digestLength = engine.getDigestLength();
+		final ForkJoinPool pool = getPool();
+		final int maxInFlight = Math.max(2, pool.getParallelism() << 1);
+		final ArrayDeque<LeafTask> inFlight = new ArrayDeque<LeafTask>(maxInFlight);
+		final ArrayDeque<byte[]> free = new ArrayDeque<byte[]>(maxInFlight);
+		byte[] leaves = new byte[digestLength << 4];
+		int count = 0;
+
+		try {
+			while(true) {
+				byte[] buffer = free.poll();
+
+				if (buffer == null) {
+					buffer = new byte[leafSize];
+				}
+
+				final int length = fill(inputStream, buffer);
+
+				if (length == 0 && count > 0) {
+					break;
+				}
+
+				if ((count + 1) * digestLength > leaves.length) {
+					leaves = Arrays.copyOf(leaves, leaves.length << 1);
+				}
+
+				final LeafTask task = new LeafTask(engine, buffer, length);
+
+				task.index = count++;
+				inFlight.add(task);
+				pool.execute(task);
+
+				if (inFlight.size() >= maxInFlight) {
+					free.add(complete(inFlight.poll(), leaves, digestLength));
+				}
+
+				if (length < leafSize) {
+					break;
+				}
+			}
+
+			while(inFlight.isEmpty() == false) {
+				complete(inFlight.poll(), leaves, digestLength);
+			}
+		} finally {
+			for (LeafTask task : inFlight) {
+				task.quietlyJoin();
+			}
+		}
+
+		return Hex.encode(leaves, 0, combine(leaves, count));
+	}
+
+	private String hash(final ByteBuffer source, final FileChannel channel, final long size) {
+		final int leafSize = this.leafSize;
+		final long leafCount = Math.max(1, (size + leafSize - 1) / leafSize);
+
+		if (leafCount > Integer.MAX_VALUE / engine.getDigestLength()) {
+			throw new IllegalArgumentException("Too many leaves, increase the leaf size");
+		}
+
+		final int count = (int) leafCount;
+		final byte[] leaves = new byte[count * engine.getDigestLength()];
+		final ForkJoinPool pool = getPool();
+		final int perWindow = Math.max(1, mapWindowSize / leafSize);
+		final int perWorker = Math.max(1, count / (pool.getParallelism() << 2));
+		final int grain = Math.min(perWindow, perWorker);
+
+		pool.invoke(new TreeHashTask(engine, source, channel, size, leafSize, leaves, 0, count,
+				grain));
+
+		return Hex.encode(leaves, 0, combine(leaves, count));
+	}
+
+	/**
+	 * 在 leaves 中原地逐层合并
+	 * 
+	 * @param leaves
+	 *        叶子摘要
+	 * @param count
+	 *        叶子数
+	 * @return 根摘要的长度，根摘要位于 leaves 起始处
+	 */
+	private int combine(final byte[] leaves, int count) {
+		final int digestLength = engine.getDigestLength();
+		final MessageDigest messageDigest = engine.acquire();
+
+		try {
+			while(count > 1) {
+				final int pairs = count >>> 1;
+
+				for (int i = 0; i < pairs; i++) {
+					messageDigest.update(NODE);
+					messageDigest.update(leaves, (i << 1) * digestLength, digestLength << 1);
+					messageDigest.digest(leaves, i * digestLength, digestLength);
+				}
+
+				if ((count & 1) != 0) {
+					System.arraycopy(leaves, (count - 1) * digestLength, leaves, pairs *
+							digestLength, digestLength);
+				}
+
+				count = pairs + (count & 1);
+			}
+		} catch (final DigestException e) {
+			throw new SecurityException(e);
+		} finally {
+			engine.release(messageDigest);
+		}
+
+		return digestLength;
+	}
+
+	private ForkJoinPool getPool() {
+		final ForkJoinPool pool = forkJoinPool;
+		return pool == null ? ForkJoinPool.commonPool() : pool;
+	}
+
+	private static byte[] complete(final LeafTask task, final byte[] leaves,
+			final int digestLength) {
+		task.join();
+		System.arraycopy(task.digest, 0, leaves, task.index * digestLength, digestLength);
+
+		return task.buffer;
+	}
+
+	private static int fill(final InputStream inputStream, final byte[] buffer)
+			throws IOException {
+		int total = 0;
+		int length;
+
+		while(total < buffer.length && (length = inputStream.read(buffer, total, buffer.length -
+				total)) != -1) {
+			total += length;
+		}
+
+		return total;
+	}
+
+	/**
+	 * 流输入的单个叶子任务
+	 */
+	private final static class LeafTask extends ForkJoinTask<Void> {
+
+		private final static long serialVersionUID = 1L;
+
+		private final DigestEngine engine;
+
+		private final byte[] buffer;
+
+		private final int length;
+
+		private final byte[] digest;
+
+		private int index;
+
+		public LeafTask(final DigestEngine engine, final byte[] buffer, final int length) {
+			this.engine = engine;
+			this.buffer = buffer;
+			this.length = length;
+			this.digest = new byte[engine.getDigestLength()];
+		}
+
+		@Override
+		public Void getRawResult() {
+			return null;
+		}
+
+		@Override
+		protected void setRawResult(final Void value) {
+		}
+
+		@Override
+		protected boolean exec() {
+			final MessageDigest messageDigest = engine.acquire();
+
+			try {
+				messageDigest.update(LEAF);
+				messageDigest.update(buffer, 0, length);
+				messageDigest.digest(digest, 0, digest.length);
+			} catch (final DigestException e) {
+				throw new SecurityException(e);
+			} finally {
+				engine.release(messageDigest);
+			}
+
+			return true;
+		}
+
+	}
+
+}
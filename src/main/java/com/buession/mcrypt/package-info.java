@@ -26,8 +26,8 @@
  */
 
 /**
- *
+ * 
  * Annotation support for string mcrypt encode.
- *
+ * 
  */
 package com.buession.mcrypt;
\ No newline at end of file
@@ -0,0 +1,295 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.provider;
+
+import java.security.DigestException;
+import java.security.MessageDigestSpi;
+
+/**
+ * 按块处理的 Merkle–Damgård 摘要
+ * 
+ * 内部状态均为基本类型字段，clone() 只需复制对象和一个块缓冲区；输入不足一个块时只缓冲，
+ * 摘要时在块缓冲区中原地填充，输入加长度不超过一个块（MD5、SHA-1、SHA-256 小于 56 字节，
+ * SHA-512 小于 112 字节）时只压缩一次。除 {@link #engineDigest()} 返回的数组外不分配内存
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+abstract class BlockDigest extends MessageDigestSpi implements Cloneable {
+
+	/**
+	 * 摘要长度（字节）
+	 */
+	private final int digestLength;
+
+	/**
+	 * 块大小（字节）
+	 */
+	private final int blockSize;
+
+	/**
+	 * 长度字段的字节数
+	 */
+	private final int lengthSize;
+
+	/**
+	 * 长度字段是否为小端序
+	 */
+	private final boolean littleEndian;
+
+	/**
+	 * 块缓冲区
+	 */
+	byte[] buffer;
+
+	/**
+	 * 块缓冲区中的字节数
+	 */
+	private int bufferOffset;
+
+	/**
+	 * 已输入的字节数
+	 */
+	private long byteCount;
+
+	/**
+	 * @param digestLength
+	 *        摘要长度（字节）
+	 * @param blockSize
+	 *        块大小（字节）
+	 * @param lengthSize
+	 *        长度字段的字节数
+	 * @param littleEndian
+	 *        长度字段是否为小端序
+	 */
+	BlockDigest(final int digestLength, final int blockSize, final int lengthSize,
+			final boolean littleEndian) {
+		this.digestLength = digestLength;
+		this.blockSize = blockSize;
+		this.lengthSize = lengthSize;
+		this.littleEndian = littleEndian;
+		this.buffer = new byte[blockSize];
+		resetState();
+	}
+
+	@Override
+	protected int engineGetDigestLength() {
+		return digestLength;
+	}
+
+	@Override
+	protected void engineUpdate(final byte input) {
+		buffer[bufferOffset++] = input;
+		byteCount++;
+
+		if (bufferOffset == blockSize) {
+			compress(buffer, 0);
+			bufferOffset = 0;
+		}
+	}
+
+	@Override
+	protected void engineUpdate(final byte[] input, int offset, int length) {
+		byteCount += length;
+
+		if (bufferOffset > 0) {
+			final int n = Math.min(length, blockSize - bufferOffset);
+
+			System.arraycopy(input, offset, buffer, bufferOffset, n);
+			bufferOffset += n;
+			offset += n;
+			length -= n;
+
+			if (bufferOffset < blockSize) {
+				return;
+			}
+
+			compress(buffer, 0);
+			bufferOffset = 0;
+		}
+
+		while(length >= blockSize) {
+			compress(input, offset);
+			offset += blockSize;
+			length -= blockSize;
+		}
+
+		if (length > 0) {
+			System.arraycopy(input, offset, buffer, 0, length);
+			bufferOffset = length;
+		}
+	}
+
+	@Override
+	protected byte[] engineDigest() {
+		final byte[] result = new byte[digestLength];
+
+		finish();
+		output(result, 0);
+		engineReset();
+
+		return result;
+	}
+
+	@Override
+	protected int engineDigest(final byte[] buf, final int offset, final int length)
+			throws DigestException {
+		if (length < digestLength) {
+			throw new DigestException("Partial digests not returned, length " + length +
+					" less than digest length " + digestLength);
+		}
+
+		if (offset < 0 || buf.length - offset < digestLength) {
+			throw new DigestException("Insufficient space in the output buffer to store the digest");
+		}
+
+		finish();
+		output(buf, offset);
+		engineReset();
+
+		return digestLength;
+	}
+
+	@Override
+	protected void engineReset() {
+		bufferOffset = 0;
+		byteCount = 0;
+		resetState();
+	}
+
+	@Override
+	public Object clone() throws CloneNotSupportedException {
+		final BlockDigest copy = (BlockDigest) super.clone();
+
+		copy.buffer = buffer.clone();
+		copy.cloneScratch();
+
+		return copy;
+	}
+
+	/**
+	 * 重置链接变量
+	 */
+	abstract void resetState();
+
+	/**
+	 * 压缩一个块
+	 * 
+	 * @param block
+	 *        输入
+	 * @param offset
+	 *        块起始位置
+	 */
+	abstract void compress(byte[] block, int offset);
+
+	/**
+	 * 按算法的字节序写出链接变量
+	 * 
+	 * @param dest
+	 *        目标缓冲区
+	 * @param offset
+	 *        目标缓冲区起始位置
+	 */
+	abstract void output(byte[] dest, int offset);
+
+	/**
+	 * 克隆后为副本分配独立的临时数组，默认无临时数组
+	 */
+	void cloneScratch() {
+	}
+
+	/**
+	 * 在块缓冲区中原地填充并压缩最后一个或两个块
+	 */
+	private void finish() {
+		final long bitLength = byteCount << 3;
+		final byte[] block = buffer;
+		int position = bufferOffset;
+
+		block[position++] = (byte) 0x80;
+
+		if (position > blockSize - lengthSize) {
+			while(position < blockSize) {
+				block[position++] = 0;
+			}
+
+			compress(block, 0);
+			position = 0;
+		}
+
+		while(position < blockSize - 8) {
+			block[position++] = 0;
+		}
+
+		if (littleEndian) {
+			putLongLE(block, blockSize - 8, bitLength);
+		} else {
+			putLongBE(block, blockSize - 8, bitLength);
+		}
+
+		compress(block, 0);
+	}
+
+	static int getIntBE(final byte[] bytes, final int offset) {
+		return (bytes[offset] << 24) | ((bytes[offset + 1] & 0xff) << 16) | ((bytes[offset + 2] &
+				0xff) << 8) | (bytes[offset + 3] & 0xff);
+	}
+
+	static int getIntLE(final byte[] bytes, final int offset) {
+		return (bytes[offset] & 0xff) | ((bytes[offset + 1] & 0xff) << 8) | ((bytes[offset + 2] &
+				0xff) << 16) | (bytes[offset + 3] << 24);
+	}
+
+	static long getLongBE(final byte[] bytes, final int offset) {
+		return ((long) getIntBE(bytes, offset) << 32) | (getIntBE(bytes, offset + 4) &
+				0xffffffffL);
+	}
+
+	static void putIntBE(final byte[] bytes, final int offset, final int value) {
+		bytes[offset] = (byte) (value >>> 24);
+		bytes[offset + 1] = (byte) (value >>> 16);
+		bytes[offset + 2] = (byte) (value >>> 8);
+		bytes[offset + 3] = (byte) value;
+	}
+
+	static void putIntLE(final byte[] bytes, final int offset, final int value) {
+		bytes[offset] = (byte) value;
+		bytes[offset + 1] = (byte) (value >>> 8);
+		bytes[offset + 2] = (byte) (value >>> 16);
+		bytes[offset + 3] = (byte) (value >>> 24);
+	}
+
+	static void putLongBE(final byte[] bytes, final int offset, final long value) {
+		putIntBE(bytes, offset, (int) (value >>> 32));
+		putIntBE(bytes, offset + 4, (int) value);
+	}
+
+	static void putLongLE(final byte[] bytes, final int offset, final long value) {
+		putIntLE(bytes, offset, (int) value);
+		putIntLE(bytes, offset + 4, (int) (value >>> 32));
+	}
+
+}
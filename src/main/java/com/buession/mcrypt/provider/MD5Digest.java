@@ -0,0 +1,184 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.provider;
+
+/**
+ * MD5（RFC 1321）
+ * 
+ * 64 步完全展开，每个块的 16 个字被读入局部变量，不使用数组
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class MD5Digest extends BlockDigest {
+
+	private int h0;
+
+	private int h1;
+
+	private int h2;
+
+	private int h3;
+
+	public MD5Digest() {
+		super(16, 64, 8, true);
+	}
+
+	@Override
+	void resetState() {
+		h0 = 0x67452301;
+		h1 = 0xefcdab89;
+		h2 = 0x98badcfe;
+		h3 = 0x10325476;
+	}
+
+	@Override
+	void compress(final byte[] block, final int offset) {
+		final int x0 = getIntLE(block, offset + 0);
+		final int x1 = getIntLE(block, offset + 4);
+		final int x2 = getIntLE(block, offset + 8);
+		final int x3 = getIntLE(block, offset + 12);
+		final int x4 = getIntLE(block, offset + 16);
+		final int x5 = getIntLE(block, offset + 20);
+		final int x6 = getIntLE(block, offset + 24);
+		final int x7 = getIntLE(block, offset + 28);
+		final int x8 = getIntLE(block, offset + 32);
+		final int x9 = getIntLE(block, offset + 36);
+		final int x10 = getIntLE(block, offset + 40);
+		final int x11 = getIntLE(block, offset + 44);
+		final int x12 = getIntLE(block, offset + 48);
+		final int x13 = getIntLE(block, offset + 52);
+		final int x14 = getIntLE(block, offset + 56);
+		final int x15 = getIntLE(block, offset + 60);
+
+		int a = h0;
+		int b = h1;
+		int c = h2;
+		int d = h3;
+
+		a = ff(a, b, c, d, x0, 0xd76aa478, 7);
+		d = ff(d, a, b, c, x1, 0xe8c7b756, 12);
+		c = ff(c, d, a, b, x2, 0x242070db, 17);
+		b = ff(b, c, d, a, x3, 0xc1bdceee, 22);
+		a = ff(a, b, c, d, x4, 0xf57c0faf, 7);
+		d = ff(d, a, b, c, x5, 0x4787c62a, 12);
+		c = ff(c, d, a, b, x6, 0xa8304613, 17);
+		b = ff(b, c, d, a, x7, 0xfd469501, 22);
+		a = ff(a, b, c, d, x8, 0x698098d8, 7);
+		d = ff(d, a, b, c, x9, 0x8b44f7af, 12);
+		c = ff(c, d, a, b, x10, 0xffff5bb1, 17);
+		b = ff(b, c, d, a, x11, 0x895cd7be, 22);
+		a = ff(a, b, c, d, x12, 0x6b901122, 7);
+		d = ff(d, a, b, c, x13, 0xfd987193, 12);
+		c = ff(c, d, a, b, x14, 0xa679438e, 17);
+		b = ff(b, c, d, a, x15, 0x49b40821, 22);
+
+		a = gg(a, b, c, d, x1, 0xf61e2562, 5);
+		d = gg(d, a, b, c, x6, 0xc040b340, 9);
+		c = gg(c, d, a, b, x11, 0x265e5a51, 14);
+		b = gg(b, c, d, a, x0, 0xe9b6c7aa, 20);
+		a = gg(a, b, c, d, x5, 0xd62f105d, 5);
+		d = gg(d, a, b, c, x10, 0x02441453, 9);
+		c = gg(c, d, a, b, x15, 0xd8a1e681, 14);
+		b = gg(b, c, d, a, x4, 0xe7d3fbc8, 20);
+		a = gg(a, b, c, d, x9, 0x21e1cde6, 5);
+		d = gg(d, a, b, c, x14, 0xc33707d6, 9);
+		c = gg(c, d, a, b, x3, 0xf4d50d87, 14);
+		b = gg(b, c, d, a, x8, 0x455a14ed, 20);
+		a = gg(a, b, c, d, x13, 0xa9e3e905, 5);
+		d = gg(d, a, b, c, x2, 0xfcefa3f8, 9);
+		c = gg(c, d, a, b, x7, 0x676f02d9, 14);
+		b = gg(b, c, d, a, x12, 0x8d2a4c8a, 20);
+
+		a = hh(a, b, c, d, x5, 0xfffa3942, 4);
+		d = hh(d, a, b, c, x8, 0x8771f681, 11);
+		c = hh(c, d, a, b, x11, 0x6d9d6122, 16);
+		b = hh(b, c, d, a, x14, 0xfde5380c, 23);
+		a = hh(a, b, c, d, x1, 0xa4beea44, 4);
+		d = hh(d, a, b, c, x4, 0x4bdecfa9, 11);
+		c = hh(c, d, a, b, x7, 0xf6bb4b60, 16);
+		b = hh(b, c, d, a, x10, 0xbebfbc70, 23);
+		a = hh(a, b, c, d, x13, 0x289b7ec6, 4);
+		d = hh(d, a, b, c, x0, 0xeaa127fa, 11);
+		c = hh(c, d, a, b, x3, 0xd4ef3085, 16);
+		b = hh(b, c, d, a, x6, 0x04881d05, 23);
+		a = hh(a, b, c, d, x9, 0xd9d4d039, 4);
+		d = hh(d, a, b, c, x12, 0xe6db99e5, 11);
+		c = hh(c, d, a, b, x15, 0x1fa27cf8, 16);
+		b = hh(b, c, d, a, x2, 0xc4ac5665, 23);
+
+		a = ii(a, b, c, d, x0, 0xf4292244, 6);
+		d = ii(d, a, b, c, x7, 0x432aff97, 10);
+		c = ii(c, d, a, b, x14, 0xab9423a7, 15);
+		b = ii(b, c, d, a, x5, 0xfc93a039, 21);
+		a = ii(a, b, c, d, x12, 0x655b59c3, 6);
+		d = ii(d, a, b, c, x3, 0x8f0ccc92, 10);
+		c = ii(c, d, a, b, x10, 0xffeff47d, 15);
+		b = ii(b, c, d, a, x1, 0x85845dd1, 21);
+		a = ii(a, b, c, d, x8, 0x6fa87e4f, 6);
+		d = ii(d, a, b, c, x15, 0xfe2ce6e0, 10);
+		c = ii(c, d, a, b, x6, 0xa3014314, 15);
+		b = ii(b, c, d, a, x13, 0x4e0811a1, 21);
+		a = ii(a, b, c, d, x4, 0xf7537e82, 6);
+		d = ii(d, a, b, c, x11, 0xbd3af235, 10);
+		c = ii(c, d, a, b, x2, 0x2ad7d2bb, 15);
+		b = ii(b, c, d, a, x9, 0xeb86d391, 21);
+
+		h0 += a;
+		h1 += b;
+		h2 += c;
+		h3 += d;
+	}
+
+	@Override
+	void output(final byte[] dest, final int offset) {
+		putIntLE(dest, offset, h0);
+		putIntLE(dest, offset + 4, h1);
+		putIntLE(dest, offset + 8, h2);
+		putIntLE(dest, offset + 12, h3);
+	}
+
+	private static int ff(final int a, final int b, final int c, final int d, final int x,
+			final int t, final int s) {
+		return Integer.rotateLeft(a + ((b & c) | (~b & d)) + x + t, s) + b;
+	}
+
+	private static int gg(final int a, final int b, final int c, final int d, final int x,
+			final int t, final int s) {
+		return Integer.rotateLeft(a + ((b & d) | (c & ~d)) + x + t, s) + b;
+	}
+
+	private static int hh(final int a, final int b, final int c, final int d, final int x,
+			final int t, final int s) {
+		return Integer.rotateLeft(a + (b ^ c ^ d) + x + t, s) + b;
+	}
+
+	private static int ii(final int a, final int b, final int c, final int d, final int x,
+			final int t, final int s) {
+		return Integer.rotateLeft(a + (c ^ (b | ~d)) + x + t, s) + b;
+	}
+
+}
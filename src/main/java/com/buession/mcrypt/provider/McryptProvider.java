@@ -0,0 +1,82 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.provider;
+
+import java.security.Provider;
+
+/**
+ * 纯 Java 实现的信息摘要提供者
+ * 
+ * 提供 MD5、SHA-1（别名 SHA、SHA1）、SHA-256、SHA-512，可直接传给 Mcrypt 及其子类接受 Provider 的构造方法，
+ * 无需调用 Security.addProvider：
+ * 
+ * <pre>
+ * Mcrypt mcrypt = new Sha256Mcrypt("UTF-8", McryptProvider.getInstance());
+ * </pre>
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class McryptProvider extends Provider {
+
+	/**
+	 * 提供者名称
+	 */
+	public final static String NAME = "Mcrypt";
+
+	private final static long serialVersionUID = -5391632580817402365L;
+
+	private final static McryptProvider INSTANCE = new McryptProvider();
+
+	@SuppressWarnings("deprecation")
+	public McryptProvider() {
+		super(NAME, 0.03D, "Mcrypt pure-Java message digests (MD5, SHA-1, SHA-256, SHA-512)");
+
+		register("MD5", MD5Digest.class);
+		register("SHA-1", Sha1Digest.class, "SHA", "SHA1");
+		register("SHA-256", Sha256Digest.class, "SHA256");
+		register("SHA-512", Sha512Digest.class, "SHA512");
+	}
+
+	/**
+	 * 返回共享的提供者实例
+	 * 
+	 * @return 提供者实例
+	 */
+	public static McryptProvider getInstance() {
+		return INSTANCE;
+	}
+
+	private void register(final String algo, final Class<?> clazz, final String... aliases) {
+		put("MessageDigest." + algo, clazz.getName());
+		put("MessageDigest." + algo + " ImplementedIn", "Software");
+
+		for (String alias : aliases) {
+			put("Alg.Alias.MessageDigest." + alias, algo);
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.provider;
+
+/**
+ * SHA-1（FIPS 180-4）
+ * 
+ * 每次循环展开 5 轮，通过轮换变量名代替寄存器移动
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Sha1Digest extends BlockDigest {
+
+	private final static int Y1 = 0x5a827999;
+
+	private final static int Y2 = 0x6ed9eba1;
+
+	private final static int Y3 = 0x8f1bbcdc;
+
+	private final static int Y4 = 0xca62c1d6;
+
+	private int h0;
+
+	private int h1;
+
+	private int h2;
+
+	private int h3;
+
+	private int h4;
+
+	/**
+	 * 消息扩展的临时数组
+	 */
+	private int[] w = new int[80];
+
+	public Sha1Digest() {
+		super(20, 64, 8, false);
+	}
+
+	@Override
+	void resetState() {
+		h0 = 0x67452301;
+		h1 = 0xefcdab89;
+		h2 = 0x98badcfe;
+		h3 = 0x10325476;
+		h4 = 0xc3d2e1f0;
+	}
+
+	@Override
+	void cloneScratch() {
+		w = new int[80];
+	}
+
+	@Override
+	void compress(final byte[] block, final int offset) {
+		final int[] x = w;
+
+		for (int t = 0; t < 16; t++) {
+			x[t] = getIntBE(block, offset + (t << 2));
+		}
+
+		for (int t = 16; t < 80; t++) {
+			x[t] = Integer.rotateLeft(x[t - 3] ^ x[t - 8] ^ x[t - 14] ^ x[t - 16], 1);
+		}
+
+		int a = h0;
+		int b = h1;
+		int c = h2;
+		int d = h3;
+		int e = h4;
+		int i = 0;
+
+		for (int j = 0; j < 4; j++) {
+			e += Integer.rotateLeft(a, 5) + ((b & c) | (~b & d)) + x[i++] + Y1;
+			b = Integer.rotateLeft(b, 30);
+			d += Integer.rotateLeft(e, 5) + ((a & b) | (~a & c)) + x[i++] + Y1;
+			a = Integer.rotateLeft(a, 30);
+			c += Integer.rotateLeft(d, 5) + ((e & a) | (~e & b)) + x[i++] + Y1;
+			e = Integer.rotateLeft(e, 30);
+			b += Integer.rotateLeft(c, 5) + ((d & e) | (~d & a)) + x[i++] + Y1;
+			d = Integer.rotateLeft(d, 30);
+			a += Integer.rotateLeft(b, 5) + ((c & d) | (~c & e)) + x[i++] + Y1;
+			c = Integer.rotateLeft(c, 30);
+		}
+
+		for (int j = 0; j < 4; j++) {
+			e += Integer.rotateLeft(a, 5) + (b ^ c ^ d) + x[i++] + Y2;
+			b = Integer.rotateLeft(b, 30);
+			d += Integer.rotateLeft(e, 5) + (a ^ b ^ c) + x[i++] + Y2;
+			a = Integer.rotateLeft(a, 30);
+			c += Integer.rotateLeft(d, 5) + (e ^ a ^ b) + x[i++] + Y2;
+			e = Integer.rotateLeft(e, 30);
+			b += Integer.rotateLeft(c, 5) + (d ^ e ^ a) + x[i++] + Y2;
+			d = Integer.rotateLeft(d, 30);
+			a += Integer.rotateLeft(b, 5) + (c ^ d ^ e) + x[i++] + Y2;
+			c = Integer.rotateLeft(c, 30);
+		}
+
+		for (int j = 0; j < 4; j++) {
+			e += Integer.rotateLeft(a, 5) + ((b & c) | (b & d) | (c & d)) + x[i++] + Y3;
+			b = Integer.rotateLeft(b, 30);
+			d += Integer.rotateLeft(e, 5) + ((a & b) | (a & c) | (b & c)) + x[i++] + Y3;
+			a = Integer.rotateLeft(a, 30);
+			c += Integer.rotateLeft(d, 5) + ((e & a) | (e & b) | (a & b)) + x[i++] + Y3;
+			e = Integer.rotateLeft(e, 30);
+			b += Integer.rotateLeft(c, 5) + ((d & e) | (d & a) | (e & a)) + x[i++] + Y3;
+			d = Integer.rotateLeft(d, 30);
+			a += Integer.rotateLeft(b, 5) + ((c & d) | (c & e) | (d & e)) + x[i++] + Y3;
+			c = Integer.rotateLeft(c, 30);
+		}
+
+		for (int j = 0; j < 4; j++) {
+			e += Integer.rotateLeft(a, 5) + (b ^ c ^ d) + x[i++] + Y4;
+			b = Integer.rotateLeft(b, 30);
+			d += Integer.rotateLeft(e, 5) + (a ^ b ^ c) + x[i++] + Y4;
+			a = Integer.rotateLeft(a, 30);
+			c += Integer.rotateLeft(d, 5) + (e ^ a ^ b) + x[i++] + Y4;
+			e = Integer.rotateLeft(e, 30);
+			b += Integer.rotateLeft(c, 5) + (d ^ e ^ a) + x[i++] + Y4;
+			d = Integer.rotateLeft(d, 30);
+			a += Integer.rotateLeft(b, 5) + (c ^ d ^ e) + x[i++] + Y4;
+			c = Integer.rotateLeft(c, 30);
+		}
+
+		h0 += a;
+		h1 += b;
+		h2 += c;
+		h3 += d;
+		h4 += e;
+	}
+
+	@Override
+	void output(final byte[] dest, final int offset) {
+		putIntBE(dest, offset, h0);
+		putIntBE(dest, offset + 4, h1);
+		putIntBE(dest, offset + 8, h2);
+		putIntBE(dest, offset + 12, h3);
+		putIntBE(dest, offset + 16, h4);
+	}
+
+}
@@ -0,0 +1,204 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.provider;
+
+/**
+ * SHA-256（FIPS 180-4）
+ * 
+ * 每次循环展开 8 轮，通过轮换变量名代替寄存器移动
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Sha256Digest extends BlockDigest {
+
+	private final static int[] K = {
+			0x428a2f98, 0x71374491, 0xb5c0fbcf, 0xe9b5dba5, 0x3956c25b, 0x59f111f1,
+			0x923f82a4, 0xab1c5ed5, 0xd807aa98, 0x12835b01, 0x243185be, 0x550c7dc3,
+			0x72be5d74, 0x80deb1fe, 0x9bdc06a7, 0xc19bf174, 0xe49b69c1, 0xefbe4786,
+			0x0fc19dc6, 0x240ca1cc, 0x2de92c6f, 0x4a7484aa, 0x5cb0a9dc, 0x76f988da,
+			0x983e5152, 0xa831c66d, 0xb00327c8, 0xbf597fc7, 0xc6e00bf3, 0xd5a79147,
+			0x06ca6351, 0x14292967, 0x27b70a85, 0x2e1b2138, 0x4d2c6dfc, 0x53380d13,
+			0x650a7354, 0x766a0abb, 0x81c2c92e, 0x92722c85, 0xa2bfe8a1, 0xa81a664b,
+			0xc24b8b70, 0xc76c51a3, 0xd192e819, 0xd6990624, 0xf40e3585, 0x106aa070,
+			0x19a4c116, 0x1e376c08, 0x2748774c, 0x34b0bcb5, 0x391c0cb3, 0x4ed8aa4a,
+			0x5b9cca4f, 0x682e6ff3, 0x748f82ee, 0x78a5636f, 0x84c87814, 0x8cc70208,
+			0x90befffa, 0xa4506ceb, 0xbef9a3f7, 0xc67178f2
+	};
+
+	private int h0;
+
+	private int h1;
+
+	private int h2;
+
+	private int h3;
+
+	private int h4;
+
+	private int h5;
+
+	private int h6;
+
+	private int h7;
+
+	/**
+	 * 消息扩展的临时数组
+	 */
+	private int[] w = new int[64];
+
+	public Sha256Digest() {
+		super(32, 64, 8, false);
+	}
+
+	@Override
+	void resetState() {
+		h0 = 0x6a09e667;
+		h1 = 0xbb67ae85;
+		h2 = 0x3c6ef372;
+		h3 = 0xa54ff53a;
+		h4 = 0x510e527f;
+		h5 = 0x9b05688c;
+		h6 = 0x1f83d9ab;
+		h7 = 0x5be0cd19;
+	}
+
+	@Override
+	void cloneScratch() {
+		w = new int[64];
+	}
+
+	@Override
+	void compress(final byte[] block, final int offset) {
+		final int[] x = w;
+
+		for (int t = 0; t < 16; t++) {
+			x[t] = getIntBE(block, offset + (t << 2));
+		}
+
+		for (int t = 16; t < 64; t++) {
+			x[t] = sigma1(x[t - 2]) + x[t - 7] + sigma0(x[t - 15]) + x[t - 16];
+		}
+
+		int a = h0;
+		int b = h1;
+		int c = h2;
+		int d = h3;
+		int e = h4;
+		int f = h5;
+		int g = h6;
+		int h = h7;
+		int t = 0;
+
+		for (int i = 0; i < 8; i++) {
+			h += sum1(e) + ch(e, f, g) + K[t] + x[t];
+			d += h;
+			h += sum0(a) + maj(a, b, c);
+			t++;
+
+			g += sum1(d) + ch(d, e, f) + K[t] + x[t];
+			c += g;
+			g += sum0(h) + maj(h, a, b);
+			t++;
+
+			f += sum1(c) + ch(c, d, e) + K[t] + x[t];
+			b += f;
+			f += sum0(g) + maj(g, h, a);
+			t++;
+
+			e += sum1(b) + ch(b, c, d) + K[t] + x[t];
+			a += e;
+			e += sum0(f) + maj(f, g, h);
+			t++;
+
+			d += sum1(a) + ch(a, b, c) + K[t] + x[t];
+			h += d;
+			d += sum0(e) + maj(e, f, g);
+			t++;
+
+			c += sum1(h) + ch(h, a, b) + K[t] + x[t];
+			g += c;
+			c += sum0(d) + maj(d, e, f);
+			t++;
+
+			b += sum1(g) + ch(g, h, a) + K[t] + x[t];
+			f += b;
+			b += sum0(c) + maj(c, d, e);
+			t++;
+
+			a += sum1(f) + ch(f, g, h) + K[t] + x[t];
+			e += a;
+			a += sum0(b) + maj(b, c, d);
+			t++;
+		}
+
+		h0 += a;
+		h1 += b;
+		h2 += c;
+		h3 += d;
+		h4 += e;
+		h5 += f;
+		h6 += g;
+		h7 += h;
+	}
+
+	@Override
+	void output(final byte[] dest, final int offset) {
+		putIntBE(dest, offset + 0, h0);
+		putIntBE(dest, offset + 4, h1);
+		putIntBE(dest, offset + 8, h2);
+		putIntBE(dest, offset + 12, h3);
+		putIntBE(dest, offset + 16, h4);
+		putIntBE(dest, offset + 20, h5);
+		putIntBE(dest, offset + 24, h6);
+		putIntBE(dest, offset + 28, h7);
+	}
+
+	private static int ch(final int x, final int y, final int z) {
+		return (x & y) ^ (~x & z);
+	}
+
+	private static int maj(final int x, final int y, final int z) {
+		return (x & y) ^ (x & z) ^ (y & z);
+	}
+
+	private static int sum0(final int x) {
+		return Integer.rotateRight(x, 2) ^ Integer.rotateRight(x, 13) ^ Integer.rotateRight(x, 22);
+	}
+
+	private static int sum1(final int x) {
+		return Integer.rotateRight(x, 6) ^ Integer.rotateRight(x, 11) ^ Integer.rotateRight(x, 25);
+	}
+
+	private static int sigma0(final int x) {
+		return Integer.rotateRight(x, 7) ^ Integer.rotateRight(x, 18) ^ (x >>> 3);
+	}
+
+	private static int sigma1(final int x) {
+		return Integer.rotateRight(x, 17) ^ Integer.rotateRight(x, 19) ^ (x >>> 10);
+	}
+
+}
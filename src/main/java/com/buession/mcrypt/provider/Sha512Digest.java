@@ -0,0 +1,220 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.provider;
+
+/**
+ * SHA-512（FIPS 180-4）
+ * 
+ * 每次循环展开 8 轮，通过轮换变量名代替寄存器移动
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Sha512Digest extends BlockDigest {
+
+	private final static long[] K = {
+			0x428a2f98d728ae22L, 0x7137449123ef65cdL, 0xb5c0fbcfec4d3b2fL,
+			0xe9b5dba58189dbbcL, 0x3956c25bf348b538L, 0x59f111f1b605d019L,
+			0x923f82a4af194f9bL, 0xab1c5ed5da6d8118L, 0xd807aa98a3030242L,
+			0x12835b0145706fbeL, 0x243185be4ee4b28cL, 0x550c7dc3d5ffb4e2L,
+			0x72be5d74f27b896fL, 0x80deb1fe3b1696b1L, 0x9bdc06a725c71235L,
+			0xc19bf174cf692694L, 0xe49b69c19ef14ad2L, 0xefbe4786384f25e3L,
+			0x0fc19dc68b8cd5b5L, 0x240ca1cc77ac9c65L, 0x2de92c6f592b0275L,
+			0x4a7484aa6ea6e483L, 0x5cb0a9dcbd41fbd4L, 0x76f988da831153b5L,
+			0x983e5152ee66dfabL, 0xa831c66d2db43210L, 0xb00327c898fb213fL,
+			0xbf597fc7beef0ee4L, 0xc6e00bf33da88fc2L, 0xd5a79147930aa725L,
+			0x06ca6351e003826fL, 0x142929670a0e6e70L, 0x27b70a8546d22ffcL,
+			0x2e1b21385c26c926L, 0x4d2c6dfc5ac42aedL, 0x53380d139d95b3dfL,
+			0x650a73548baf63deL, 0x766a0abb3c77b2a8L, 0x81c2c92e47edaee6L,
+			0x92722c851482353bL, 0xa2bfe8a14cf10364L, 0xa81a664bbc423001L,
+			0xc24b8b70d0f89791L, 0xc76c51a30654be30L, 0xd192e819d6ef5218L,
+			0xd69906245565a910L, 0xf40e35855771202aL, 0x106aa07032bbd1b8L,
+			0x19a4c116b8d2d0c8L, 0x1e376c085141ab53L, 0x2748774cdf8eeb99L,
+			0x34b0bcb5e19b48a8L, 0x391c0cb3c5c95a63L, 0x4ed8aa4ae3418acbL,
+			0x5b9cca4f7763e373L, 0x682e6ff3d6b2b8a3L, 0x748f82ee5defb2fcL,
+			0x78a5636f43172f60L, 0x84c87814a1f0ab72L, 0x8cc702081a6439ecL,
+			0x90befffa23631e28L, 0xa4506cebde82bde9L, 0xbef9a3f7b2c67915L,
+			0xc67178f2e372532bL, 0xca273eceea26619cL, 0xd186b8c721c0c207L,
+			0xeada7dd6cde0eb1eL, 0xf57d4f7fee6ed178L, 0x06f067aa72176fbaL,
+			0x0a637dc5a2c898a6L, 0x113f9804bef90daeL, 0x1b710b35131c471bL,
+			0x28db77f523047d84L, 0x32caab7b40c72493L, 0x3c9ebe0a15c9bebcL,
+			0x431d67c49c100d4cL, 0x4cc5d4becb3e42b6L, 0x597f299cfc657e2aL,
+			0x5fcb6fab3ad6faecL, 0x6c44198c4a475817L
+	};
+
+	private long h0;
+
+	private long h1;
+
+	private long h2;
+
+	private long h3;
+
+	private long h4;
+
+	private long h5;
+
+	private long h6;
+
+	private long h7;
+
+	/**
+	 * 消息扩展的临时数组
+	 */
+	private long[] w = new long[80];
+
+	public Sha512Digest() {
+		super(64, 128, 16, false);
+	}
+
+	@Override
+	void resetState() {
+		h0 = 0x6a09e667f3bcc908L;
+		h1 = 0xbb67ae8584caa73bL;
+		h2 = 0x3c6ef372fe94f82bL;
+		h3 = 0xa54ff53a5f1d36f1L;
+		h4 = 0x510e527fade682d1L;
+		h5 = 0x9b05688c2b3e6c1fL;
+		h6 = 0x1f83d9abfb41bd6bL;
+		h7 = 0x5be0cd19137e2179L;
+	}
+
+	@Override
+	void cloneScratch() {
+		w = new long[80];
+	}
+
+	@Override
+	void compress(final byte[] block, final int offset) {
+		final long[] x = w;
+
+		for (int t = 0; t < 16; t++) {
+			x[t] = getLongBE(block, offset + (t << 3));
+		}
+
+		for (int t = 16; t < 80; t++) {
+			x[t] = sigma1(x[t - 2]) + x[t - 7] + sigma0(x[t - 15]) + x[t - 16];
+		}
+
+		long a = h0;
+		long b = h1;
+		long c = h2;
+		long d = h3;
+		long e = h4;
+		long f = h5;
+		long g = h6;
+		long h = h7;
+		int t = 0;
+
+		for (int i = 0; i < 10; i++) {
+			h += sum1(e) + ch(e, f, g) + K[t] + x[t];
+			d += h;
+			h += sum0(a) + maj(a, b, c);
+			t++;
+
+			g += sum1(d) + ch(d, e, f) + K[t] + x[t];
+			c += g;
+			g += sum0(h) + maj(h, a, b);
+			t++;
+
+			f += sum1(c) + ch(c, d, e) + K[t] + x[t];
+			b += f;
+			f += sum0(g) + maj(g, h, a);
+			t++;
+
+			e += sum1(b) + ch(b, c, d) + K[t] + x[t];
+			a += e;
+			e += sum0(f) + maj(f, g, h);
+			t++;
+
+			d += sum1(a) + ch(a, b, c) + K[t] + x[t];
+			h += d;
+			d += sum0(e) + maj(e, f, g);
+			t++;
+
+			c += sum1(h) + ch(h, a, b) + K[t] + x[t];
+			g += c;
+			c += sum0(d) + maj(d, e, f);
+			t++;
+
+			b += sum1(g) + ch(g, h, a) + K[t] + x[t];
+			f += b;
+			b += sum0(c) + maj(c, d, e);
+			t++;
+
+			a += sum1(f) + ch(f, g, h) + K[t] + x[t];
+			e += a;
+			a += sum0(b) + maj(b, c, d);
+			t++;
+		}
+
+		h0 += a;
+		h1 += b;
+		h2 += c;
+		h3 += d;
+		h4 += e;
+		h5 += f;
+		h6 += g;
+		h7 += h;
+	}
+
+	@Override
+	void output(final byte[] dest, final int offset) {
+		putLongBE(dest, offset + 0, h0);
+		putLongBE(dest, offset + 8, h1);
+		putLongBE(dest, offset + 16, h2);
+		putLongBE(dest, offset + 24, h3);
+		putLongBE(dest, offset + 32, h4);
+		putLongBE(dest, offset + 40, h5);
+		putLongBE(dest, offset + 48, h6);
+		putLongBE(dest, offset + 56, h7);
+	}
+
+	private static long ch(final long x, final long y, final long z) {
+		return (x & y) ^ (~x & z);
+	}
+
+	private static long maj(final long x, final long y, final long z) {
+		return (x & y) ^ (x & z) ^ (y & z);
+	}
+
+	private static long sum0(final long x) {
+		return Long.rotateRight(x, 28) ^ Long.rotateRight(x, 34) ^ Long.rotateRight(x, 39);
+	}
+
+	private static long sum1(final long x) {
+		return Long.rotateRight(x, 14) ^ Long.rotateRight(x, 18) ^ Long.rotateRight(x, 41);
+	}
+
+	private static long sigma0(final long x) {
+		return Long.rotateRight(x, 1) ^ Long.rotateRight(x, 8) ^ (x >>> 7);
+	}
+
+	private static long sigma1(final long x) {
+		return Long.rotateRight(x, 19) ^ Long.rotateRight(x, 61) ^ (x >>> 6);
+	}
+
+}
@@ -0,0 +1,969 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.tools;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.util.Collections;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.buession.mcrypt.DigestEngine;
+import com.buession.mcrypt.Hex;
+import com.buession.mcrypt.Mcrypt;
+
+/**
+ * 目录树校验和工具
+ * 
+ * 遍历目录树，并行计算每个普通文件的摘要，按相对路径排序后输出与 sha256sum 兼容的清单，
+ * 可在目录下用 sha256sum -c 校验（算法为 SHA-256 时）；不跟随符号链接。
+ * 
+ * I/O 和 CPU 分别限流：小于映射阈值的文件由 I/O 线程整块读入内存，再交给 CPU 线程计算摘要；
+ * 不小于阈值的文件由 I/O 线程按 {@link #CHUNK_SIZE} 分段读入内存，再交给 CPU 线程更新摘要，
+ * 一段计算完后才读取下一段。读入内存、尚未计算摘要的字节数有上限，
+ * 任何时刻读取文件的线程数不超过 I/O 并发数，计算摘要的线程数不超过 CPU 并发数。
+ * 
+ * 指定索引文件时，按（路径、大小、修改时间、inode）记录每个文件的摘要，再次扫描时只计算有变化的文件。
+ * 计算摘要期间文件发生变化的，结果仍写入清单，但不记入索引，下次扫描重新计算
+ * 
+ * <pre>
+ * java com.buession.mcrypt.tools.Checksum [-a 算法] [-o 清单文件] [-i 索引文件]
+ *      [--io-threads n] [--cpu-threads n] [--map-threshold 字节数]
+ *      [--max-buffered-bytes 字节数] 目录
+ * </pre>
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+public final class Checksum {
+
+	/**
+	 * 默认 I/O 并发数
+	 */
+	public final static int DEFAULT_IO_THREADS = 4;
+
+	/**
+	 * 默认读入内存、等待计算摘要的字节数上限
+	 */
+	public final static int DEFAULT_MAX_BUFFERED_BYTES = 64 * 1024 * 1024;
+
+	/**
+	 * 大文件每次读入内存的字节数，不超过读入内存的字节数上限
+	 */
+	public final static int CHUNK_SIZE = 4 * 1024 * 1024;
+
+	/**
+	 * 每个线程允许排队的文件数
+	 */
+	private final static int PENDING_PER_THREAD = 64;
+
+	private final Path root;
+
+	private final String algo;
+
+	private final Mcrypt mcrypt;
+
+	private final int ioThreads;
+
+	private final int cpuThreads;
+
+	private final long mapThreshold;
+
+	private final int maxBufferedBytes;
+
+	private final Path indexFile;
+
+	/**
+	 * 不参与扫描的文件，如位于目录内的清单和索引
+	 */
+	private final Path[] excludes;
+
+	/**
+	 * @param builder
+	 *        构建器
+	 */
+	private Checksum(final Builder builder) {
+		this.root = builder.root;
+		this.algo = builder.algo;
+		this.ioThreads = builder.ioThreads;
+		this.cpuThreads = builder.cpuThreads;
+		this.mapThreshold = builder.mapThreshold;
+		this.maxBufferedBytes = builder.maxBufferedBytes;
+		this.indexFile = builder.indexFile;
+		this.excludes = new Path[] {absolute(builder.indexFile), absolute(builder.manifestFile)};
+		this.mcrypt = Mcrypt.builder(algo).build();
+	}
+
+	/**
+	 * 返回构建器
+	 * 
+	 * @param root
+	 *        需要扫描的目录
+	 * @return 构建器
+	 */
+	public static Builder builder(final Path root) {
+		return new Builder(root);
+	}
+
+	/**
+	 * 扫描目录，计算有变化的文件的摘要，并在指定索引文件时保存索引；目录本身无法访问时不保存索引，
+	 * 无法访问的子目录沿用上次保存的条目
+	 * 
+	 * @return 扫描结果
+	 * @throws IOException
+	 *         遍历目录或读写索引出错；单个文件读取出错记入 {@link Result#getFailures()}
+	 * @throws InterruptedException
+	 *         等待时被中断
+	 */
+	public Result scan() throws IOException, InterruptedException {
+		final long begin = System.nanoTime();
+		final ChecksumIndex index = indexFile == null ? null : ChecksumIndex.load(indexFile, algo);
+		final Scan scan = new Scan(index);
+
+		try {
+			Files.walkFileTree(root, scan);
+			scan.await();
+		} finally {
+			scan.shutdown();
+		}
+
+		if (index != null && scan.rootFailed == false) {
+			index.store(indexFile);
+		}
+
+		return new Result(scan.manifest, scan.failures, scan.hashed.get(), scan.reused.get(),
+				scan.hashedBytes.get(), System.nanoTime() - begin);
+	}
+
+	/**
+	 * 命令行入口，退出码 0 表示全部成功，1 表示有文件读取失败，2 表示参数错误
+	 * 
+	 * @param args
+	 *        命令行参数
+	 * @throws Exception
+	 *         遍历目录或读写文件出错
+	 */
+	public static void main(final String[] args) throws Exception {
+		Checksum checksum = null;
+		Path manifestFile = null;
+		Path root = null;
+		String algo = Mcrypt.SHA256;
+		Path indexFile = null;
+		int ioThreads = DEFAULT_IO_THREADS;
+		int cpuThreads = Runtime.getRuntime().availableProcessors();
+		long mapThreshold = Mcrypt.DEFAULT_MAP_THRESHOLD;
+		int maxBufferedBytes = DEFAULT_MAX_BUFFERED_BYTES;
+
+		try {
+			for (int i = 0; i < args.length; i++) {
+				final String arg = args[i];
+
+				if ("-a".equals(arg) || "--algo".equals(arg)) {
+					algo = value(args, ++i, arg);
+				} else if ("-o".equals(arg) || "--output".equals(arg)) {
+					manifestFile = Paths.get(value(args, ++i, arg));
+				} else if ("-i".equals(arg) || "--index".equals(arg)) {
+					indexFile = Paths.get(value(args, ++i, arg));
+				} else if ("--io-threads".equals(arg)) {
+					ioThreads = Integer.parseInt(value(args, ++i, arg));
+				} else if ("--cpu-threads".equals(arg)) {
+					cpuThreads = Integer.parseInt(value(args, ++i, arg));
+				} else if ("--map-threshold".equals(arg)) {
+					mapThreshold = Long.parseLong(value(args, ++i, arg));
+				} else if ("--max-buffered-bytes".equals(arg)) {
+					maxBufferedBytes = Integer.parseInt(value(args, ++i, arg));
+				} else if (arg.startsWith("-") || root != null) {
+					throw new IllegalArgumentException("Unexpected argument " + arg);
+				} else {
+					root = Paths.get(arg);
+				}
+			}
+
+			if (root == null) {
+				throw new IllegalArgumentException("Directory could not be null");
+			}
+
+			checksum = builder(root).algo(algo).indexFile(indexFile).manifestFile(manifestFile)
+					.ioThreads(ioThreads).cpuThreads(cpuThreads).mapThreshold(mapThreshold)
+					.maxBufferedBytes(maxBufferedBytes).build();
+		} catch (final IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.err.println("Usage: java " + Checksum.class.getName() + " [-a algo] [-o manifest]" +
+					" [-i index] [--io-threads n] [--cpu-threads n] [--map-threshold bytes]" +
+					" [--max-buffered-bytes bytes] directory");
+			System.exit(2);
+		}
+
+		final Result result = checksum.scan();
+		final Writer writer = new BufferedWriter(manifestFile == null ? new OutputStreamWriter(
+				System.out, StandardCharsets.UTF_8) : Files.newBufferedWriter(manifestFile,
+				StandardCharsets.UTF_8));
+
+		try {
+			result.writeManifest(writer);
+		} finally {
+			if (manifestFile == null) {
+				writer.flush();
+			} else {
+				writer.close();
+			}
+		}
+
+		for (Map.Entry<String, String> e : result.getFailures().entrySet()) {
+			System.err.println(e.getKey() + ": " + e.getValue());
+		}
+
+		System.err.println(result);
+		System.exit(result.getFailures().isEmpty() ? 0 : 1);
+	}
+
+	/**
+	 * 按 sha256sum 的规则转义路径中的反斜杠、换行和回车
+	 * 
+	 * @param path
+	 *        路径
+	 * @return 转义后的路径
+	 */
+	static String escape(final String path) {
+		if (needsEscape(path) == false) {
+			return path;
+		}
+
+		final StringBuilder sb = new StringBuilder(path.length() + 8);
+
+		for (int i = 0; i < path.length(); i++) {
+			final char c = path.charAt(i);
+
+			if (c == '\\') {
+				sb.append("\\\\");
+			} else if (c == '\n') {
+				sb.append("\\n");
+			} else if (c == '\r') {
+				sb.append("\\r");
+			} else {
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	/**
+	 * {@link #escape(String)} 的逆操作
+	 * 
+	 * @param path
+	 *        转义后的路径
+	 * @return 路径
+	 */
+	static String unescape(final String path) {
+		if (path.indexOf('\\') < 0) {
+			return path;
+		}
+
+		final StringBuilder sb = new StringBuilder(path.length());
+
+		for (int i = 0; i < path.length(); i++) {
+			final char c = path.charAt(i);
+
+			if (c == '\\' && i + 1 < path.length()) {
+				final char next = path.charAt(++i);
+				sb.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+			} else {
+				sb.append(c);
+			}
+		}
+
+		return sb.toString();
+	}
+
+	private static boolean needsEscape(final String path) {
+		return path.indexOf('\\') >= 0 || path.indexOf('\n') >= 0 || path.indexOf('\r') >= 0;
+	}
+
+	private static String value(final String[] args, final int i, final String name) {
+		if (i >= args.length) {
+			throw new IllegalArgumentException("Missing value for " + name);
+		}
+
+		return args[i];
+	}
+
+	private static Path absolute(final Path path) {
+		return path == null ? null : path.toAbsolutePath().normalize();
+	}
+
+	private static ExecutorService newPool(final int threads, final String name) {
+		return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+			private final AtomicInteger sequence = new AtomicInteger();
+
+			@Override
+			public Thread newThread(final Runnable r) {
+				final Thread thread = new Thread(r, name + "-" + sequence.incrementAndGet());
+
+				thread.setDaemon(true);
+				return thread;
+			}
+
+		});
+	}
+
+	/**
+	 * 一次扫描的状态
+	 */
+	private final class Scan extends SimpleFileVisitor<Path> {
+
+		private final ChecksumIndex index;
+
+		private final ExecutorService ioPool = newPool(ioThreads, "mcrypt-checksum-io");
+
+		private final ExecutorService cpuPool = newPool(cpuThreads, "mcrypt-checksum-cpu");
+
+		/**
+		 * 正在读取文件的线程数
+		 */
+		private final Semaphore io = new Semaphore(ioThreads);
+
+		/**
+		 * 已读入内存、尚未计算摘要的字节数
+		 */
+		private final Semaphore buffered = new Semaphore(maxBufferedBytes);
+
+		private final int chunkSize = Math.min(CHUNK_SIZE, maxBufferedBytes);
+
+		private final DigestEngine engine = mcrypt.getDigestEngine();
+
+		/**
+		 * 已提交、尚未完成的文件数，遍历目录的线程据此等待
+		 */
+		private final int maxPending = (ioThreads + cpuThreads) * PENDING_PER_THREAD;
+
+		private final Semaphore pending = new Semaphore(maxPending);
+
+		private final SortedMap<String, String> manifest = new ConcurrentSkipListMap<String, String>();
+
+		private final SortedMap<String, String> failures = new ConcurrentSkipListMap<String, String>();
+
+		private final AtomicLong hashed = new AtomicLong();
+
+		private final AtomicLong reused = new AtomicLong();
+
+		private final AtomicLong hashedBytes = new AtomicLong();
+
+		/**
+		 * 目录本身无法访问，此时不保存索引
+		 */
+		private boolean rootFailed;
+
+		Scan(final ChecksumIndex index) {
+			this.index = index;
+		}
+
+		@Override
+		public FileVisitResult visitFile(final Path file, final BasicFileAttributes attrs)
+				throws IOException {
+			if (attrs.isRegularFile() == false || isExcluded(file)) {
+				return FileVisitResult.CONTINUE;
+			}
+
+			final String path = relativize(file);
+			final long size = attrs.size();
+			final long modified = attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+			final String inode = inode(attrs);
+
+			if (index != null) {
+				final String hash = index.lookup(path, size, modified, inode);
+
+				if (hash != null) {
+					manifest.put(path, hash);
+					index.put(path, size, modified, inode, hash);
+					reused.incrementAndGet();
+					return FileVisitResult.CONTINUE;
+				}
+			}
+
+			try {
+				pending.acquire();
+			} catch (final InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new IOException(e);
+			}
+
+			ioPool.execute(size < mapThreshold ? new FileTask(file, path, size, modified, inode) :
+					new ChunkedFileTask(file, path, size, modified, inode));
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult visitFileFailed(final Path file, final IOException e) {
+			failures.put(relativize(file), String.valueOf(e));
+
+			if (file.equals(root)) {
+				rootFailed = true;
+			} else if (index != null) {
+				index.retain(relativize(file));
+			}
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		@Override
+		public FileVisitResult postVisitDirectory(final Path dir, final IOException e) {
+			if (e != null) {
+				failures.put(relativize(dir), String.valueOf(e));
+
+				if (index != null) {
+					index.retain(dir.equals(root) ? "" : relativize(dir));
+				}
+			}
+
+			return FileVisitResult.CONTINUE;
+		}
+
+		void await() throws InterruptedException {
+			pending.acquire(maxPending);
+			pending.release(maxPending);
+		}
+
+		void shutdown() {
+			ioPool.shutdownNow();
+			cpuPool.shutdownNow();
+		}
+
+		private boolean isExcluded(final Path file) {
+			final Path absolute = absolute(file);
+
+			for (Path exclude : excludes) {
+				if (absolute.equals(exclude)) {
+					return true;
+				}
+			}
+
+			return false;
+		}
+
+		private String relativize(final Path file) {
+			final Path relative = root.relativize(file);
+			final StringBuilder sb = new StringBuilder();
+
+			for (Path name : relative) {
+				if (sb.length() > 0) {
+					sb.append('/');
+				}
+
+				sb.append(name.toString());
+			}
+
+			return sb.length() == 0 ? file.getFileName().toString() : sb.toString();
+		}
+
+		private String inode(final BasicFileAttributes attrs) {
+			final Object key = attrs.fileKey();
+			return key == null ? "-" : key.toString();
+		}
+
+		/**
+		 * 单个文件：在 I/O 线程整块读入内存后转交 CPU 线程计算摘要
+		 */
+		private class FileTask implements Runnable {
+
+			final Path file;
+
+			final String path;
+
+			final long size;
+
+			final long modified;
+
+			final String inode;
+
+			private byte[] content;
+
+			int permits;
+
+			FileTask(final Path file, final String path, final long size, final long modified,
+					final String inode) {
+				this.file = file;
+				this.path = path;
+				this.size = size;
+				this.modified = modified;
+				this.inode = inode;
+			}
+
+			@Override
+			public void run() {
+				boolean handedOff = false;
+
+				try {
+					if (content == null) {
+						permits = (int) Math.max(size, 1);
+						buffered.acquire(permits);
+
+						io.acquire();
+						try {
+							content = Files.readAllBytes(file);
+						} finally {
+							io.release();
+						}
+
+						cpuPool.execute(this);
+						handedOff = true;
+					} else {
+						final byte[] content = this.content;
+
+						this.content = null;
+						buffered.release(permits);
+						permits = 0;
+
+						complete(mcrypt.encode(content, 0, content.length), content.length);
+					}
+				} catch (final Throwable e) {
+					failures.put(path, String.valueOf(e));
+				} finally {
+					if (handedOff == false) {
+						if (permits > 0) {
+							buffered.release(permits);
+							permits = 0;
+						}
+
+						pending.release();
+					}
+				}
+			}
+
+			void complete(final String hash, final long bytes) throws IOException {
+				manifest.put(path, hash);
+				hashed.incrementAndGet();
+				hashedBytes.addAndGet(bytes);
+
+				if (index == null) {
+					return;
+				}
+
+				final BasicFileAttributes attrs = Files.readAttributes(file,
+						BasicFileAttributes.class, LinkOption.NOFOLLOW_LINKS);
+
+				if (attrs.size() == size && attrs.lastModifiedTime().to(TimeUnit.NANOSECONDS) ==
+						modified && inode(attrs).equals(inode) && bytes == size) {
+					index.put(path, size, modified, inode, hash);
+				}
+			}
+
+		}
+
+		/**
+		 * 大文件：I/O 线程读入一段，CPU 线程以该段更新摘要后再提交读取下一段
+		 */
+		private final class ChunkedFileTask extends FileTask {
+
+			private FileChannel channel;
+
+			private MessageDigest messageDigest;
+
+			private long total;
+
+			private long position;
+
+			private ByteBuffer chunk;
+
+			ChunkedFileTask(final Path file, final String path, final long size,
+					final long modified, final String inode) {
+				super(file, path, size, modified, inode);
+			}
+
+			@Override
+			public void run() {
+				boolean handedOff = false;
+
+				try {
+					if (chunk == null) {
+						if (channel == null) {
+							channel = FileChannel.open(file, StandardOpenOption.READ);
+							total = channel.size();
+							messageDigest = engine.acquire();
+						}
+
+						final int length = (int) Math.min(chunkSize, total - position);
+
+						permits = Math.max(length, 1);
+						buffered.acquire(permits);
+
+						final ByteBuffer buffer = ByteBuffer.allocate(length);
+
+						io.acquire();
+						try {
+							while(buffer.hasRemaining()) {
+								if (channel.read(buffer, position + buffer.position()) < 0) {
+									throw new IOException("File truncated while reading: " + file);
+								}
+							}
+						} finally {
+							io.release();
+						}
+
+						buffer.flip();
+						chunk = buffer;
+						position += length;
+						cpuPool.execute(this);
+						handedOff = true;
+					} else {
+						messageDigest.update(chunk);
+						chunk = null;
+						buffered.release(permits);
+						permits = 0;
+
+						if (position < total) {
+							ioPool.execute(this);
+							handedOff = true;
+						} else {
+							complete(Hex.encode(messageDigest.digest()), total);
+						}
+					}
+				} catch (final Throwable e) {
+					failures.put(path, String.valueOf(e));
+				} finally {
+					if (handedOff == false) {
+						chunk = null;
+
+						if (permits > 0) {
+							buffered.release(permits);
+							permits = 0;
+						}
+
+						engine.release(messageDigest);
+						messageDigest = null;
+						close();
+						pending.release();
+					}
+				}
+			}
+
+			private void close() {
+				if (channel != null) {
+					try {
+						channel.close();
+					} catch (final IOException e) {
+						failures.put(path, String.valueOf(e));
+					}
+
+					channel = null;
+				}
+			}
+
+		}
+
+	}
+
+	/**
+	 * 扫描结果
+	 */
+	public final static class Result {
+
+		private final SortedMap<String, String> manifest;
+
+		private final SortedMap<String, String> failures;
+
+		private final long hashed;
+
+		private final long reused;
+
+		private final long hashedBytes;
+
+		private final long elapsed;
+
+		private Result(final SortedMap<String, String> manifest,
+				final SortedMap<String, String> failures, final long hashed, final long reused,
+				final long hashedBytes, final long elapsed) {
+			this.manifest = Collections.unmodifiableSortedMap(manifest);
+			this.failures = Collections.unmodifiableSortedMap(failures);
+			this.hashed = hashed;
+			this.reused = reused;
+			this.hashedBytes = hashedBytes;
+			this.elapsed = elapsed;
+		}
+
+		/**
+		 * 返回相对路径到十六进制摘要的映射，按路径排序
+		 * 
+		 * @return 清单
+		 */
+		public SortedMap<String, String> getManifest() {
+			return manifest;
+		}
+
+		/**
+		 * 返回读取失败的文件及原因，按路径排序
+		 * 
+		 * @return 读取失败的文件
+		 */
+		public SortedMap<String, String> getFailures() {
+			return failures;
+		}
+
+		/**
+		 * 返回本次计算摘要的文件数
+		 * 
+		 * @return 计算摘要的文件数
+		 */
+		public long getHashedCount() {
+			return hashed;
+		}
+
+		/**
+		 * 返回使用索引中摘要的文件数
+		 * 
+		 * @return 使用索引中摘要的文件数
+		 */
+		public long getReusedCount() {
+			return reused;
+		}
+
+		/**
+		 * 返回本次计算摘要的字节数
+		 * 
+		 * @return 计算摘要的字节数
+		 */
+		public long getHashedBytes() {
+			return hashedBytes;
+		}
+
+		/**
+		 * 返回扫描耗时（纳秒）
+		 * 
+		 * @return 扫描耗时
+		 */
+		public long getElapsed() {
+			return elapsed;
+		}
+
+		/**
+		 * 按 sha256sum 的格式写出清单：摘要、两个空格、路径；路径需要转义时行首加反斜杠
+		 * 
+		 * @param writer
+		 *        输出
+		 * @throws IOException
+		 *         写出出错
+		 */
+		public void writeManifest(final Writer writer) throws IOException {
+			for (Map.Entry<String, String> e : manifest.entrySet()) {
+				final String path = e.getKey();
+
+				if (needsEscape(path)) {
+					writer.write('\\');
+				}
+
+				writer.write(e.getValue());
+				writer.write("  ");
+				writer.write(escape(path));
+				writer.write('\n');
+			}
+		}
+
+		@Override
+		public String toString() {
+			return "Checksum.Result{files=" + manifest.size() + ", hashed=" + hashed + ", reused=" +
+					reused + ", hashedBytes=" + hashedBytes + ", failures=" + failures.size() +
+					", elapsed=" + TimeUnit.NANOSECONDS.toMillis(elapsed) + "ms}";
+		}
+
+	}
+
+	/**
+	 * 构建器
+	 */
+	public final static class Builder {
+
+		private final Path root;
+
+		private String algo = Mcrypt.SHA256;
+
+		private int ioThreads = DEFAULT_IO_THREADS;
+
+		private int cpuThreads = Runtime.getRuntime().availableProcessors();
+
+		private long mapThreshold = Mcrypt.DEFAULT_MAP_THRESHOLD;
+
+		private int maxBufferedBytes = DEFAULT_MAX_BUFFERED_BYTES;
+
+		private Path indexFile;
+
+		private Path manifestFile;
+
+		private Builder(final Path root) {
+			if (root == null) {
+				throw new IllegalArgumentException("Directory could not be null");
+			}
+
+			this.root = root;
+		}
+
+		/**
+		 * 设置请求算法的名称，默认为 SHA-256
+		 * 
+		 * @param algo
+		 *        请求算法的名称
+		 * @return 构建器
+		 */
+		public Builder algo(final String algo) {
+			this.algo = algo;
+			return this;
+		}
+
+		/**
+		 * 设置同时读取文件的线程数
+		 * 
+		 * @param ioThreads
+		 *        I/O 并发数
+		 * @return 构建器
+		 */
+		public Builder ioThreads(final int ioThreads) {
+			if (ioThreads < 1) {
+				throw new IllegalArgumentException("I/O threads could not less than 1");
+			}
+
+			this.ioThreads = ioThreads;
+			return this;
+		}
+
+		/**
+		 * 设置计算摘要的线程数
+		 * 
+		 * @param cpuThreads
+		 *        CPU 并发数
+		 * @return 构建器
+		 */
+		public Builder cpuThreads(final int cpuThreads) {
+			if (cpuThreads < 1) {
+				throw new IllegalArgumentException("CPU threads could not less than 1");
+			}
+
+			this.cpuThreads = cpuThreads;
+			return this;
+		}
+
+		/**
+		 * 设置文件映射到内存的阈值，小于该值的文件整块读入内存，不小于该值的文件分段读入内存；
+		 * 不能超过 Integer.MAX_VALUE，也不能超过读入内存的字节数上限
+		 * 
+		 * @param mapThreshold
+		 *        文件映射到内存的阈值
+		 * @return 构建器
+		 */
+		public Builder mapThreshold(final long mapThreshold) {
+			if (mapThreshold < 0) {
+				throw new IllegalArgumentException("Map threshold could not less than 0");
+			}
+
+			if (mapThreshold > Integer.MAX_VALUE) {
+				throw new IllegalArgumentException("Map threshold could not greater than " +
+						Integer.MAX_VALUE);
+			}
+
+			this.mapThreshold = mapThreshold;
+			return this;
+		}
+
+		/**
+		 * 设置读入内存、等待计算摘要的字节数上限，不能小于映射阈值
+		 * 
+		 * @param maxBufferedBytes
+		 *        字节数上限
+		 * @return 构建器
+		 */
+		public Builder maxBufferedBytes(final int maxBufferedBytes) {
+			if (maxBufferedBytes < 1) {
+				throw new IllegalArgumentException("Max buffered bytes could not less than 1");
+			}
+
+			this.maxBufferedBytes = maxBufferedBytes;
+			return this;
+		}
+
+		/**
+		 * 设置索引文件，为 null 时每次都计算全部文件
+		 * 
+		 * @param indexFile
+		 *        索引文件
+		 * @return 构建器
+		 */
+		public Builder indexFile(final Path indexFile) {
+			this.indexFile = indexFile;
+			return this;
+		}
+
+		/**
+		 * 设置清单文件，只用于在扫描时排除位于目录内的清单
+		 * 
+		 * @param manifestFile
+		 *        清单文件
+		 * @return 构建器
+		 */
+		public Builder manifestFile(final Path manifestFile) {
+			this.manifestFile = manifestFile;
+			return this;
+		}
+
+		/**
+		 * 构建校验和工具，算法不可用时立即抛出异常；映射阈值超过读入内存的字节数上限时
+		 * 抛出 IllegalArgumentException
+		 * 
+		 * @return 校验和工具
+		 */
+		public Checksum build() {
+			if (mapThreshold > maxBufferedBytes) {
+				throw new IllegalArgumentException("Map threshold could not greater than max " +
+						"buffered bytes " + maxBufferedBytes);
+			}
+
+			return new Checksum(this);
+		}
+
+	}
+
+}
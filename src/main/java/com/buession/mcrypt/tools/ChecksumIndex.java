@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: http://mcrypt.buession.com.cn/LICENSE 												|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt.tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * {@link Checksum} 的增量索引
+ * 
+ * 以相对路径为键，保存文件大小、修改时间、inode 和摘要；再次扫描时四项均未变化的文件直接使用保存的摘要。
+ * 索引为 UTF-8 文本，首行记录格式版本和算法，算法不同时整个索引作废；
+ * 每行依次为大小、修改时间（纳秒）、inode、摘要和转义后的路径，以制表符分隔。
+ * 保存时只写入本次扫描到的文件以及本次无法访问的目录下上次保存的条目，先写临时文件再替换，
+ * 中途失败不会破坏原有索引
+ * 
+ * @author Yong.Teng <webmaster@buession.com>
+ */
+final class ChecksumIndex {
+
+	/**
+	 * 首行前缀
+	 */
+	final static String HEADER = "# mcrypt checksum index v1 ";
+
+	/**
+	 * 请求算法的名称
+	 */
+	private final String algo;
+
+	/**
+	 * 上次保存的索引
+	 */
+	private final Map<String, Entry> previous;
+
+	/**
+	 * 本次扫描的索引
+	 */
+	private final ConcurrentMap<String, Entry> current = new ConcurrentSkipListMap<String, Entry>();
+
+	private ChecksumIndex(final String algo, final Map<String, Entry> previous) {
+		this.algo = algo;
+		this.previous = previous;
+	}
+
+	/**
+	 * 读取索引；文件不存在、算法不同或格式无法识别时返回空索引
+	 * 
+	 * @param file
+	 *        索引文件
+	 * @param algo
+	 *        请求算法的名称
+	 * @return 索引
+	 * @throws IOException
+	 *         读取索引出错
+	 */
+	static ChecksumIndex load(final Path file, final String algo) throws IOException {
+		final Map<String, Entry> entries = new ConcurrentHashMap<String, Entry>();
+
+		if (Files.exists(file) == false) {
+			return new ChecksumIndex(algo, entries);
+		}
+
+		final BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+
+		try {
+			final String header = reader.readLine();
+
+			if (header == null || header.equals(HEADER + algo) == false) {
+				return new ChecksumIndex(algo, entries);
+			}
+
+			String line;
+			while((line = reader.readLine()) != null) {
+				final String[] fields = line.split("\t", 5);
+
+				if (fields.length != 5) {
+					return new ChecksumIndex(algo, new ConcurrentHashMap<String, Entry>());
+				}
+
+				try {
+					entries.put(Checksum.unescape(fields[4]), new Entry(Long.parseLong(fields[0]), Long
+							.parseLong(fields[1]), fields[2], fields[3]));
+				} catch (final NumberFormatException e) {
+					return new ChecksumIndex(algo, new ConcurrentHashMap<String, Entry>());
+				}
+			}
+		} finally {
+			reader.close();
+		}
+
+		return new ChecksumIndex(algo, entries);
+	}
+
+	/**
+	 * 返回上次保存的摘要
+	 * 
+	 * @param path
+	 *        相对路径
+	 * @param size
+	 *        文件大小
+	 * @param modified
+	 *        修改时间（纳秒）
+	 * @param inode
+	 *        inode
+	 * @return 四项均一致时返回摘要，否则返回 null
+	 */
+	String lookup(final String path, final long size, final long modified, final String inode) {
+		final Entry entry = previous.get(path);
+
+		return entry != null && entry.matches(size, modified, inode) ? entry.hash : null;
+	}
+
+	/**
+	 * 记录本次扫描的摘要
+	 * 
+	 * @param path
+	 *        相对路径
+	 * @param size
+	 *        文件大小
+	 * @param modified
+	 *        修改时间（纳秒）
+	 * @param inode
+	 *        inode
+	 * @param hash
+	 *        摘要
+	 */
+	void put(final String path, final long size, final long modified, final String inode,
+			final String hash) {
+		current.put(path, new Entry(size, modified, inode, hash));
+	}
+
+	/**
+	 * 保留上次保存的、位于 path 下（含 path 本身）的条目，用于本次无法访问的文件或目录；
+	 * 本次已记录的条目不会被覆盖
+	 * 
+	 * @param path
+	 *        相对路径，为空字符串时保留全部条目
+	 */
+	void retain(final String path) {
+		final String prefix = path + '/';
+
+		for (Map.Entry<String, Entry> e : previous.entrySet()) {
+			final String key = e.getKey();
+
+			if (path.length() == 0 || key.equals(path) || key.startsWith(prefix)) {
+				current.putIfAbsent(key, e.getValue());
+			}
+		}
+	}
+
+	/**
+	 * 返回本次扫描记录的文件数
+	 * 
+	 * @return 文件数
+	 */
+	int size() {
+		return current.size();
+	}
+
+	/**
+	 * 保存本次扫描的索引
+	 * 
+	 * @param file
+	 *        索引文件
+	 * @throws IOException
+	 *         写入索引出错
+	 */
+	void store(final Path file) throws IOException {
+		final Path absolute = file.toAbsolutePath();
+		final Path temp = absolute.resolveSibling(absolute.getFileName() + ".tmp");
+
+		final BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8);
+
+		try {
+			writer.write(HEADER);
+			writer.write(algo);
+			writer.write('\n');
+
+			for (Map.Entry<String, Entry> e : current.entrySet()) {
+				final Entry entry = e.getValue();
+
+				writer.write(Long.toString(entry.size));
+				writer.write('\t');
+				writer.write(Long.toString(entry.modified));
+				writer.write('\t');
+				writer.write(entry.inode);
+				writer.write('\t');
+				writer.write(entry.hash);
+				writer.write('\t');
+				writer.write(Checksum.escape(e.getKey()));
+				writer.write('\n');
+			}
+		} finally {
+			writer.close();
+		}
+
+		try {
+			Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+		} catch (final AtomicMoveNotSupportedException e) {
+			Files.move(temp, absolute, StandardCopyOption.REPLACE_EXISTING);
+		}
+	}
+
+	private final static class Entry {
+
+		private final long size;
+
+		private final long modified;
+
+		private final String inode;
+
+		private final String hash;
+
+		Entry(final long size, final long modified, final String inode, final String hash) {
+			this.size = size;
+			this.modified = modified;
+			this.inode = inode;
+			this.hash = hash;
+		}
+
+		boolean matches(final long size, final long modified, final String inode) {
+			return this.size == size && this.modified == modified && this.inode.equals(inode);
+		}
+
+	}
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class AsyncSha512Mcrypt {
+
+	/**
+	 * @param args
+	 * @throws ExecutionException
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws InterruptedException, ExecutionException {
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+
+		Mcrypt mcrypt = Mcrypt.builder(Mcrypt.SHA512).characterEncoding("UTF-8")
+				.salt(Constants.SALT).count(1000).asyncExecutor(executor).maxPendingAsync(2)
+				.build();
+
+		CompletableFuture<String> first = mcrypt.encodeAsync(Constants.STR);
+		CompletableFuture<String> second = mcrypt.encodeAsync(Constants.STR);
+		CompletableFuture<String> third = mcrypt.encodeAsync(Constants.STR);
+
+		System.out.println(first.get());
+		System.out.println(first.get().equals(second.get()));
+		System.out.println(third.isCompletedExceptionally());
+		System.out.println(mcrypt.encodeAsync(Constants.STR, executor).get());
+
+		executor.shutdown();
+	}
+
+}
@@ -0,0 +1,51 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+public class Base64Sha256Mcrypt {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		Mcrypt mcrypt = Mcrypt.builder(Mcrypt.SHA256).characterEncoding("UTF-8")
+				.salt(Constants.SALT).outputEncoding(OutputEncoding.BASE64_URL).build();
+
+		String encoded = mcrypt.encode(Constants.STR);
+		System.out.println(encoded);
+		System.out.println(mcrypt.matches(Constants.STR, encoded));
+
+		byte[] raw = mcrypt.digest(Constants.STR);
+		System.out.println(Hex.encode(raw));
+		System.out.println(Base64Url.encode(raw).equals(encoded));
+
+		byte[] dest = new byte[OutputEncoding.BASE64_URL.encodedLength(raw.length)];
+		mcrypt.encodeTo(Constants.STR, dest, 0);
+		System.out.println(new String(dest));
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.concurrent.TimeUnit;
+
+public class CacheSha256Mcrypt {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		EncodeCache cache = new EncodeCache(2, 10, TimeUnit.MINUTES);
+		Mcrypt mcrypt = Mcrypt.builder(Mcrypt.SHA256).characterEncoding("UTF-8")
+				.salt(Constants.SALT).count(1000).cache(cache).build();
+
+		long start = System.nanoTime();
+		String result = mcrypt.encode(Constants.STR);
+		long miss = System.nanoTime() - start;
+
+		start = System.nanoTime();
+		String cached = mcrypt.encode(Constants.STR);
+		long hit = System.nanoTime() - start;
+
+		System.out.println(result + " " + result.equals(cached) + " miss " + miss + "ns, hit " +
+				hit + "ns");
+
+		mcrypt.encode("a");
+		mcrypt.encode("b");
+		mcrypt.encode(Constants.STR);
+
+		System.out.println(cache);
+	}
+
+}
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class CanonicalMapMD5Mcrypt {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		Mcrypt mcrypt = Mcrypt.builder(Mcrypt.MD5).characterEncoding("UTF-8").salt(Constants.SALT)
+				.objectFormat(ObjectFormat.CANONICAL).build();
+
+		Map<String, Object> data = new HashMap<String, Object>();
+		data.put("a", "A");
+		data.put("b", 100);
+		data.put("c", 2.14);
+		data.put("d", new int[] {1, 2, 3});
+
+		Map<String, Object> linked = new LinkedHashMap<String, Object>();
+		linked.put("d", new int[] {1, 2, 3});
+		linked.put("c", 2.14);
+		linked.put("b", 100);
+		linked.put("a", "A");
+
+		Map<String, Object> sorted = new TreeMap<String, Object>(data);
+
+		System.out.println(mcrypt.encode(data));
+		System.out.println(mcrypt.encode(linked));
+		System.out.println(mcrypt.encode(sorted));
+		System.out.println(mcrypt.encode(Arrays.asList("a", 100, 2.14)));
+		System.out.println(mcrypt.encode(new Object[] {"a", 100, 2.14}));
+	}
+
+}
@@ -26,6 +26,9 @@
  */
 package com.buession.mcrypt;
 
+import java.nio.CharBuffer;
+import java.util.Arrays;
+
 public class CharSimpleMD5Mcrypt {
 
 	/**
@@ -38,6 +41,10 @@ public class CharSimpleMD5Mcrypt {
 
 		System.out.println(new String(data));
 		System.out.println(mcrypt.encode(data));
+		System.out.println(mcrypt.encode(new StringBuilder("123456")));
+		System.out.println(mcrypt.encode(CharBuffer.wrap(data)));
+
+		Arrays.fill(data, '\0');
 	}
 
 }
\ No newline at end of file
@@ -0,0 +1,67 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import com.buession.mcrypt.tools.Checksum;
+
+public class ChecksumMcrypt {
+
+	/**
+	 * @param args
+	 * @throws IOException
+	 * @throws InterruptedException
+	 */
+	public static void main(String[] args) throws IOException, InterruptedException {
+		Path root = Files.createTempDirectory("mcrypt-checksum");
+		Path index = Files.createTempFile("mcrypt-checksum", ".idx");
+
+		Files.createDirectories(root.resolve("sub"));
+		Files.write(root.resolve("a.txt"), Constants.STR.getBytes(StandardCharsets.UTF_8));
+		Files.write(root.resolve("sub/b.bin"), new byte[2 * 1024 * 1024]);
+
+		Checksum checksum = Checksum.builder(root).indexFile(index).build();
+
+		Checksum.Result first = checksum.scan();
+		Writer writer = new OutputStreamWriter(System.out, StandardCharsets.UTF_8);
+		first.writeManifest(writer);
+		writer.flush();
+
+		Files.write(root.resolve("a.txt"), Constants.SALT.getBytes(StandardCharsets.UTF_8));
+
+		Checksum.Result second = checksum.scan();
+		System.out.println(second.getHashedCount() + " hashed, " + second.getReusedCount() +
+				" reused");
+	}
+
+}
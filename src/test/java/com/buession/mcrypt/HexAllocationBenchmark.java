@@ -0,0 +1,187 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.lang.management.ManagementFactory;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+public class HexAllocationBenchmark {
+
+	private final static int WARMUP = 200000;
+
+	private final static int ITERATIONS = 1000000;
+
+	private final static char[] HEX_DIGITS = {'0', '1', '2', '3', '4', '5', '6', '7', '8', '9',
+			'a', 'b', 'c', 'd', 'e', 'f'};
+
+	private static int sink;
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		final byte[] digest = new byte[32];
+		final char[] chars = new char[64];
+		final byte[] bytes = new byte[64];
+
+		for (int i = 0; i < digest.length; i++) {
+			digest[i] = (byte) (i * 37);
+		}
+
+		run("StringBuilder (before)", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += getFormattedText(digest).length();
+			}
+
+		});
+
+		run("Hex.encode", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += Hex.encode(digest).length();
+			}
+
+		});
+
+		run("Hex.encodeTo(char[])", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += Hex.encodeTo(digest, 0, digest.length, chars, 0);
+			}
+
+		});
+
+		run("Hex.encodeTo(byte[])", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += Hex.encodeTo(digest, 0, digest.length, bytes, 0);
+			}
+
+		});
+
+		final Mcrypt mcrypt = new Sha256Mcrypt("UTF-8", Constants.SALT);
+
+		run("Mcrypt.encode", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += mcrypt.encode(Constants.STR).length();
+			}
+
+		});
+
+		run("Mcrypt.encodeTo(char[])", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += mcrypt.encodeTo(Constants.STR, chars, 0);
+			}
+
+		});
+
+		run("Mcrypt.encodeTo(byte[])", new Runnable() {
+
+			@Override
+			public void run() {
+				sink += mcrypt.encodeTo(Constants.STR, bytes, 0);
+			}
+
+		});
+
+		final byte[] payload = Constants.STR.getBytes(StandardCharsets.UTF_8);
+		final ByteBuffer src = ByteBuffer.allocateDirect(payload.length);
+		final ByteBuffer dst = ByteBuffer.allocateDirect(64);
+
+		src.put(payload);
+
+		run("Mcrypt.digestInto(direct)", new Runnable() {
+
+			@Override
+			public void run() {
+				src.clear();
+				dst.clear();
+				sink += mcrypt.digestInto(src, dst);
+			}
+
+		});
+
+		run("Mcrypt.encodeInto(direct)", new Runnable() {
+
+			@Override
+			public void run() {
+				src.clear();
+				dst.clear();
+				sink += mcrypt.encodeInto(src, dst);
+			}
+
+		});
+
+		System.out.println(sink == 0 ? "" : "done");
+	}
+
+	private static void run(final String name, final Runnable task) {
+		for (int i = 0; i < WARMUP; i++) {
+			task.run();
+		}
+
+		final long start = allocatedBytes();
+		final long time = System.nanoTime();
+
+		for (int i = 0; i < ITERATIONS; i++) {
+			task.run();
+		}
+
+		final long elapsed = System.nanoTime() - time;
+		final long allocated = allocatedBytes() - start;
+
+		System.out.printf("%-28s %8.1f B/op %8.1f ns/op%n", name, (double) allocated / ITERATIONS,
+				(double) elapsed / ITERATIONS);
+	}
+
+	private static long allocatedBytes() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+				.getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static String getFormattedText(byte[] bytes) {
+		final StringBuilder buffer = new StringBuilder(bytes.length * 2);
+
+		for (int j = 0; j < bytes.length; j++) {
+			buffer.append(HEX_DIGITS[(bytes[j] >> 4) & 0x0f]);
+			buffer.append(HEX_DIGITS[bytes[j] & 0x0f]);
+		}
+
+		return buffer.toString();
+	}
+
+}
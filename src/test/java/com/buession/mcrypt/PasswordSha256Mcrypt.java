@@ -0,0 +1,56 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.concurrent.TimeUnit;
+
+public class PasswordSha256Mcrypt {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		PasswordMcrypt passwordMcrypt = PasswordMcrypt.calibrate(Mcrypt.SHA256, 50,
+				TimeUnit.MILLISECONDS);
+
+		System.out.println(passwordMcrypt);
+
+		long start = System.nanoTime();
+		String encoded = passwordMcrypt.encode(Constants.STR);
+		System.out.println(encoded + " in " + (System.nanoTime() - start) / 1000000 + " ms");
+
+		System.out.println(passwordMcrypt.matches(Constants.STR, encoded));
+		System.out.println(passwordMcrypt.matches(Constants.STR + "x", encoded));
+		System.out.println(passwordMcrypt.needsRehash(encoded));
+
+		PasswordMcrypt weaker = new PasswordMcrypt(Mcrypt.SHA256, 1000);
+		String old = weaker.encode(Constants.STR);
+		System.out.println(passwordMcrypt.matches(Constants.STR, old));
+		System.out.println(passwordMcrypt.needsRehash(old));
+	}
+
+}
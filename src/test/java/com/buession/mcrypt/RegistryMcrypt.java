@@ -0,0 +1,58 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional information regarding
+ * copyright ownership. The ASF licenses this file to you under the Apache License, Version 2.0 
+ * (the "License"); you may not use this file except in compliance with the License. You may obtain 
+ * a copy of the License at
+ * 
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ * 
+ * =================================================================================================
+ * 
+ * This software consists of voluntary contributions made by many individuals on behalf of the
+ * Apache Software Foundation. For more information on the Apache Software Foundation, please see
+ * <http://www.apache.org/>.
+ * 
+ * +------------------------------------------------------------------------------------------------+
+ * | License: License: https://mcrypt.buession.com.cn/LICENSE 										|
+ * | Author: Yong.Teng <webmaster@buession.com> 													|
+ * | Copyright @ 2013-2014 Buession.com Inc.														|
+ * +------------------------------------------------------------------------------------------------+
+ */
+package com.buession.mcrypt;
+
+import java.util.Map;
+
+public class RegistryMcrypt {
+
+	/**
+	 * @param args
+	 */
+	public static void main(String[] args) {
+		McryptRegistry registry = new McryptRegistry();
+
+		registry.register("md5", new MD5Mcrypt("UTF-8", Constants.SALT));
+		registry.register("sha256", Mcrypt.builder(Mcrypt.SHA256).characterEncoding("UTF-8")
+				.salt(Constants.SALT).count(100));
+
+		try {
+			registry.register("missing", Mcrypt.builder("NO-SUCH-ALGO"));
+		} catch (SecurityException e) {
+			System.out.println("rejected: " + e.getMessage());
+		}
+
+		System.out.println(registry);
+
+		Map<String, Long> report = registry.warmUp();
+		System.out.println(report.keySet());
+
+		System.out.println(registry.get("md5").encode(Constants.STR));
+		System.out.println(registry.get("sha256").encode(Constants.STR));
+	}
+
+}